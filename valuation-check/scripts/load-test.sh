@@ -0,0 +1,59 @@
+#!/bin/bash
+
+# Load test for POST /valuation/process. Compares platform and virtual threads by running the app twice:
+#   SPRING_THREADS_VIRTUAL_ENABLED=false java -jar build/libs/*.jar $NO_SHARING   then   ./scripts/load-test.sh
+#   SPRING_THREADS_VIRTUAL_ENABLED=true  java -jar build/libs/*.jar $NO_SHARING   then   ./scripts/load-test.sh
+# where NO_SHARING turns off coalescing and the caches, which would otherwise answer every repeat of the
+# same report from the first run:
+#   --app.valuation.coalescing.enabled=false --azure.storage.cache.enabled=false
+#   --azure.document-intelligence.cache.enabled=false --azure.openai.cache.enabled=false
+# Every request runs the full pipeline, so the app needs reachable Azure Storage, Document Intelligence and
+# OpenAI resources and a report for REQUEST_ID/LOAN_APPLICATION_ID.
+#
+# Usage: ./scripts/load-test.sh [requests] [concurrency]
+# Environment: BASE_URL (default http://localhost:8080/api/v1), REQUEST_ID, LOAN_APPLICATION_ID
+
+set -e
+
+REQUESTS=${1:-400}
+CONCURRENCY=${2:-200}
+BASE_URL=${BASE_URL:-http://localhost:8080/api/v1}
+REQUEST_ID=${REQUEST_ID:-rt74321}
+LOAN_APPLICATION_ID=${LOAN_APPLICATION_ID:-lnap4879}
+
+if ! command -v curl > /dev/null 2>&1; then
+    echo "❌ curl is required."
+    exit 1
+fi
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+
+BODY="{\"requestId\":\"$REQUEST_ID\",\"loanApplicationId\":\"$LOAN_APPLICATION_ID\"}"
+
+echo "🔥 Sending $REQUESTS requests to $BASE_URL/valuation/process with concurrency $CONCURRENCY..."
+
+START=$(date +%s.%N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+        -H "Content-Type: application/json" -d "$BODY" \
+        "$BASE_URL/valuation/process" >> "$RESULTS"
+END=$(date +%s.%N)
+
+ELAPSED=$(echo "$END - $START" | bc)
+echo "⏱️  Elapsed: ${ELAPSED}s ($(echo "scale=1; $REQUESTS / $ELAPSED" | bc) requests/s)"
+
+echo "📊 Status codes:"
+cut -d' ' -f1 "$RESULTS" | sort | uniq -c
+
+echo "📈 Latency (s):"
+cut -d' ' -f2 "$RESULTS" | sort -n | awk '
+    { latency[NR] = $1 }
+    END {
+        printf "   p50 %s  p90 %s  p99 %s  max %s\n",
+            latency[int(NR * 0.50) + 1], latency[int(NR * 0.90) + 1], latency[int(NR * 0.99) + 1], latency[NR]
+    }'
+
+echo "🧵 Pinned virtual threads:"
+curl -s "$BASE_URL/actuator/metrics/valuation.threads.pinned" || echo "   (metric not available)"
+echo
@@ -12,9 +12,9 @@ if ! docker info > /dev/null 2>&1; then
     exit 1
 fi
 
-# Check if Java 17 is installed
-if ! java -version 2>&1 | grep -q "17"; then
-    echo "❌ Java 17 is required. Please install Java 17 and try again."
+# Check if Java 21 is installed
+if ! java -version 2>&1 | grep -q "version \"21"; then
+    echo "❌ Java 21 is required. Please install Java 21 and try again."
     exit 1
 fi
 
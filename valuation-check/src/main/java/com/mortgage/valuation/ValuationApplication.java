@@ -2,6 +2,7 @@ package com.mortgage.valuation;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot application for mortgage property valuation processing.
@@ -14,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * 5. Returns structured JSON response
  */
 @SpringBootApplication
+@EnableScheduling
 public class ValuationApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,313 @@
+package com.mortgage.valuation.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded, least-recently-used cache of files in a local directory, with an optional time-to-live.
+ *
+ * Entries are plain files named after their key, so the cache survives restarts: on startup the
+ * directory is re-indexed in last-modified order. Hit, miss, eviction and expiry counts are published as
+ * {@code valuation.cache.*} meters tagged with the cache name.
+ *
+ * The index is guarded by a lock rather than the object monitor because files are deleted while it is
+ * held, which would pin a virtual thread to its carrier.
+ */
+public final class LocalFileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileCache.class);
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String name;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Duration timeToLive;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentSizeBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter expirations;
+
+    public LocalFileCache(String name, Path directory, long maxSizeBytes, MeterRegistry meterRegistry) {
+        this(name, directory, maxSizeBytes, null, meterRegistry);
+    }
+
+    /**
+     * @param timeToLive How long an entry stays valid after it was written, or null for no expiry
+     */
+    public LocalFileCache(String name, Path directory, long maxSizeBytes, Duration timeToLive,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.timeToLive = timeToLive;
+
+        this.hits = Counter.builder("valuation.cache.hits").tag("cache", name)
+                .description("Local cache lookups served from disk").register(meterRegistry);
+        this.misses = Counter.builder("valuation.cache.misses").tag("cache", name)
+                .description("Local cache lookups that required a remote call").register(meterRegistry);
+        this.evictions = Counter.builder("valuation.cache.evictions").tag("cache", name)
+                .description("Entries removed to keep the cache within its size bound").register(meterRegistry);
+        this.expirations = Counter.builder("valuation.cache.expirations").tag("cache", name)
+                .description("Entries removed because they outlived the time-to-live").register(meterRegistry);
+        Gauge.builder("valuation.cache.size", this, LocalFileCache::getCurrentSizeBytes).tag("cache", name)
+                .baseUnit("bytes").description("Bytes currently held by the cache").register(meterRegistry);
+        Gauge.builder("valuation.cache.entries", this, LocalFileCache::getEntryCount).tag("cache", name)
+                .description("Entries currently held by the cache").register(meterRegistry);
+
+        loadExistingEntries();
+    }
+
+    /**
+     * Looks up a cached file.
+     *
+     * @param key The cache key
+     * @return The path of the cached file, or empty on a miss
+     */
+    public Optional<Path> get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null || !Files.exists(entry.path)) {
+                if (entry != null) {
+                    remove(key);
+                }
+                misses.increment();
+                return Optional.empty();
+            }
+            if (isExpired(entry)) {
+                remove(key);
+                expirations.increment();
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry.path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates an empty temporary file inside the cache directory, so that a later {@link #put(String, Path)}
+     * is an atomic rename rather than a copy.
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "entry-", TEMP_SUFFIX);
+    }
+
+    /**
+     * Moves a file into the cache under the given key, evicting least recently used entries as needed.
+     * Files larger than the whole cache are not retained.
+     *
+     * @param key The cache key
+     * @param source The file to move into the cache
+     */
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        if (size > maxSizeBytes) {
+            logger.debug("Not caching {} entry {}: {} bytes exceeds cache size {}", name, key, size, maxSizeBytes);
+            Files.deleteIfExists(source);
+            return;
+        }
+
+        Path target = directory.resolve(key);
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(target, size, Instant.now()));
+            if (previous != null) {
+                currentSizeBytes -= previous.size;
+            }
+            currentSizeBytes += size;
+            evictToFit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes content into the cache under the given key.
+     *
+     * @param key The cache key
+     * @param content The content to cache
+     */
+    public void put(String key, byte[] content) throws IOException {
+        Path tempFile = createTempFile();
+        try {
+            Files.write(tempFile, content);
+            put(key, tempFile);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Removes an entry, for example when the remote copy is known to have changed.
+     */
+    public void invalidate(String key) {
+        lock.lock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCurrentSizeBytes() {
+        lock.lock();
+        try {
+            return currentSizeBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Builds a filesystem-safe cache key from the given parts.
+     *
+     * @param parts The values identifying the cached content
+     * @return The hex SHA-256 of the parts
+     */
+    public static String keyOf(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void evictToFit() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentSizeBytes > maxSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            currentSizeBytes -= eldest.getValue().size;
+            deleteQuietly(eldest.getValue().path);
+            evictions.increment();
+            logger.debug("Evicted {} cache entry {}", name, eldest.getKey());
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return timeToLive != null && entry.written.plus(timeToLive).isBefore(Instant.now());
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            currentSizeBytes -= entry.size;
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private void loadExistingEntries() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+
+            files.stream()
+                    .filter(path -> path.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .forEach(LocalFileCache::deleteQuietly);
+
+            lock.lock();
+            try {
+                files.stream()
+                        .filter(path -> !path.getFileName().toString().endsWith(TEMP_SUFFIX))
+                        .sorted(Comparator.comparing(LocalFileCache::lastModified))
+                        .forEach(path -> {
+                            long size = sizeOf(path);
+                            Instant written = Instant.ofEpochMilli(lastModified(path));
+                            entries.put(path.getFileName().toString(), new Entry(path, size, written));
+                            currentSizeBytes += size;
+                        });
+                evictToFit();
+            } finally {
+                lock.unlock();
+            }
+            logger.info("Initialised {} cache at {} with {} entries ({} bytes)",
+                    name, directory, entries.size(), currentSizeBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialise " + name + " cache at " + directory, e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cache file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record Entry(Path path, long size, Instant written) {
+    }
+}
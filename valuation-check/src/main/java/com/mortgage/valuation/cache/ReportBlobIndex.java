@@ -0,0 +1,94 @@
+package com.mortgage.valuation.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of {@code loanApplicationId/requestId -> report blob}, so that fetching a report
+ * does not need a prefix listing.
+ *
+ * Blob names are expected in the form {@code {reportsPath}/{loanApplicationId}/{requestId}/{file}.pdf}.
+ * When a folder holds several PDFs the lexicographically first one is kept, matching the order in
+ * which a prefix listing returns them.
+ */
+public class ReportBlobIndex {
+
+    private final String reportsPath;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ReportBlobIndex(String reportsPath, MeterRegistry meterRegistry) {
+        this.reportsPath = reportsPath.endsWith("/") ? reportsPath : reportsPath + "/";
+
+        this.hits = Counter.builder("valuation.storage.index.hits")
+                .description("Report lookups resolved from the blob index").register(meterRegistry);
+        this.misses = Counter.builder("valuation.storage.index.misses")
+                .description("Report lookups that fell back to a prefix listing").register(meterRegistry);
+        Gauge.builder("valuation.storage.index.entries", entries, Map::size)
+                .description("Reports currently held in the blob index").register(meterRegistry);
+    }
+
+    /**
+     * Looks up the report blob for a request.
+     */
+    public Optional<Entry> get(String loanApplicationId, String requestId) {
+        Entry entry = entries.get(key(loanApplicationId, requestId));
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry);
+    }
+
+    /**
+     * Records a blob in the index. Names outside the reports path or that are not PDFs are ignored.
+     *
+     * @return true if the blob was indexed
+     */
+    public boolean record(String blobName, String eTag, long size, OffsetDateTime lastModified) {
+        if (!blobName.startsWith(reportsPath) || !blobName.toLowerCase().endsWith(".pdf")) {
+            return false;
+        }
+        String[] segments = blobName.substring(reportsPath.length()).split("/");
+        if (segments.length < 3) {
+            return false;
+        }
+
+        Entry entry = new Entry(blobName, eTag, size, lastModified);
+        entries.merge(key(segments[0], segments[1]), entry, (existing, candidate) ->
+                existing.blobName().equals(candidate.blobName()) || candidate.blobName().compareTo(existing.blobName()) < 0
+                        ? candidate
+                        : existing);
+        return true;
+    }
+
+    /**
+     * Drops the entry for a request, e.g. after the indexed blob turned out to be deleted.
+     */
+    public void remove(String loanApplicationId, String requestId) {
+        entries.remove(key(loanApplicationId, requestId));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(String loanApplicationId, String requestId) {
+        return loanApplicationId + "/" + requestId;
+    }
+
+    /**
+     * Indexed report blob with the properties last seen for it.
+     */
+    public record Entry(String blobName, String eTag, long size, OffsetDateTime lastModified) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.mortgage.valuation.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of asynchronous operations in flight without blocking callers.
+ *
+ * Operations beyond the limit are queued and started, in submission order, as earlier ones complete.
+ * A queued operation whose deadline has expired by then is failed instead of started.
+ */
+public class AsyncConcurrencyLimiter {
+
+    private final int maxConcurrency;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    public AsyncConcurrencyLimiter(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Starts the operation now if a permit is free, otherwise once one is released.
+     *
+     * @param operation Starts the operation and returns its future
+     * @return A future completing with the operation's outcome
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> operation) {
+        return submit(operation, Deadline.none(), "queued operation");
+    }
+
+    /**
+     * Starts the operation now if a permit is free, otherwise once one is released, unless its deadline
+     * has expired by then.
+     *
+     * @param operation Starts the operation and returns its future
+     * @param deadline The deadline of the request the operation belongs to
+     * @param description What the operation does, for the {@link Deadline.DeadlineExceededException}
+     * @return A future completing with the operation's outcome, or failed with a
+     *         {@link Deadline.DeadlineExceededException} if the deadline expired before it started
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> operation, Deadline deadline,
+                                           String description) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (deadline.isExpired()) {
+            result.completeExceptionally(deadline.exceeded(description));
+            return result;
+        }
+        Runnable start = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = operation.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+        Runnable expire = () -> result.completeExceptionally(deadline.exceeded(description));
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < maxConcurrency;
+            if (startNow) {
+                inFlight++;
+            } else {
+                waiting.addLast(new Waiter(deadline, start, expire));
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiting.size();
+    }
+
+    private void release() {
+        while (true) {
+            Waiter next;
+            synchronized (this) {
+                // Hand the permit straight to the next waiter, if any
+                next = waiting.pollFirst();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            if (!next.deadline().isExpired()) {
+                next.start().run();
+                return;
+            }
+            // Keep the permit for the waiter after it
+            next.expire().run();
+        }
+    }
+
+    private record Waiter(Deadline deadline, Runnable start, Runnable expire) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.mortgage.valuation.concurrent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The time budget of one request, carried through every stage so each gets only what is left.
+ *
+ * A deadline expires when its time runs out or when it is cancelled, e.g. because the client went
+ * away. Blocking calls take {@link #timeout()} as their own timeout; asynchronous work can react to
+ * {@link #onExpiry()}. The request's entry point closes its deadline when the request is done, so that
+ * the timer and the work bound to it are not kept until the time would have run out.
+ */
+public final class Deadline implements AutoCloseable {
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+    private final CompletableFuture<Void> expiry = new CompletableFuture<>();
+    private final Map<CompletableFuture<?>, String> boundWork = new ConcurrentHashMap<>();
+    private final Set<Deadline> children = ConcurrentHashMap.newKeySet();
+    private final Deadline parent;
+    private final AtomicBoolean timerStarted = new AtomicBoolean();
+    private volatile ScheduledFuture<?> timer;
+    private volatile boolean cancelled;
+    private volatile boolean closed;
+
+    private Deadline(long deadlineNanos, boolean bounded, Deadline parent) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+        this.parent = parent;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos(), true, null);
+    }
+
+    /**
+     * A deadline that only expires when cancelled.
+     */
+    public static Deadline none() {
+        return new Deadline(0, false, null);
+    }
+
+    /**
+     * Returns a deadline with the same time left that is also cancelled when this one is, but can be
+     * cancelled on its own, e.g. to stop the other parts of a request once one has failed. The child is
+     * closed like any other deadline.
+     */
+    public Deadline child() {
+        Deadline child = new Deadline(deadlineNanos, bounded, this);
+        children.add(child);
+        if (cancelled) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    /**
+     * Returns the time left, at least one millisecond so it can be passed as a timeout, or null if the
+     * deadline is unbounded.
+     */
+    public Duration timeout() {
+        if (!bounded) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || (bounded && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Expires the deadline now; work bound to it is abandoned.
+     */
+    public void cancel() {
+        cancelled = true;
+        expire();
+        children.forEach(Deadline::cancel);
+    }
+
+    /**
+     * Releases the deadline once its request is done: stops the timer and forgets the work bound to it,
+     * which is left to finish on its own. The deadline does not expire because of this.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> scheduled = timer;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        boundWork.clear();
+        children.clear();
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+    }
+
+    /**
+     * Fails fast instead of starting an operation that has no time left.
+     *
+     * @throws DeadlineExceededException if the deadline has expired
+     */
+    public void check(String operation) throws DeadlineExceededException {
+        if (isExpired()) {
+            throw exceeded(operation);
+        }
+    }
+
+    public DeadlineExceededException exceeded(String operation) {
+        return new DeadlineExceededException(operation, cancelled);
+    }
+
+    /**
+     * Returns a future that completes when the deadline expires or is cancelled.
+     */
+    public CompletableFuture<Void> onExpiry() {
+        if (bounded && !closed && timerStarted.compareAndSet(false, true)) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                expire();
+            } else {
+                timer = TIMER.schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+                // close() may have run before the timer was stored
+                if (closed) {
+                    timer.cancel(false);
+                }
+            }
+        }
+        return expiry;
+    }
+
+    private void expire() {
+        if (expiry.complete(null)) {
+            boundWork.forEach((work, operation) -> work.completeExceptionally(exceeded(operation)));
+            boundWork.clear();
+        }
+    }
+
+    /**
+     * Returns a view of the work that fails with {@link DeadlineExceededException} once the deadline
+     * expires. The work itself is left running; callers cancel it if it can be cancelled. The view is
+     * held by the deadline only until it completes or the deadline is closed.
+     */
+    public <T> CompletableFuture<T> bound(CompletableFuture<T> work, String operation) {
+        CompletableFuture<T> view = work.copy();
+        if (view.isDone() || closed) {
+            return view;
+        }
+        boundWork.put(view, operation);
+        view.whenComplete((value, error) -> boundWork.remove(view));
+        // The deadline may have expired before the view was registered
+        if (onExpiry().isDone()) {
+            view.completeExceptionally(exceeded(operation));
+        }
+        return view;
+    }
+
+    /**
+     * The request ran out of time, or was cancelled, before an operation finished.
+     */
+    public static class DeadlineExceededException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean cancelled;
+
+        public DeadlineExceededException(String operation, boolean cancelled) {
+            super(cancelled
+                    ? "Request was cancelled during " + operation
+                    : "Request deadline exceeded during " + operation);
+            this.cancelled = cancelled;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.mortgage.valuation.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stage of a staged pipeline: a fixed number of workers fed from a bounded queue. When the queue is
+ * full, new work is refused at once with a {@link StageOverloadedException} instead of waiting behind
+ * work that would not start for minutes. Work whose deadline expires while it is queued is skipped when
+ * a worker picks it up.
+ *
+ * Exports {@code valuation.stage.queued}, {@code valuation.stage.active}, {@code valuation.stage.wait}
+ * (time spent queued), {@code valuation.stage.rejected} and {@code valuation.stage.expired}, tagged with
+ * the stage name.
+ */
+public class ExecutionStage {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final Counter expired;
+
+    public ExecutionStage(String name, int concurrency, int queueCapacity, ThreadFactory threadFactory,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+
+        Gauge.builder("valuation.stage.queued", executor, stage -> stage.getQueue().size())
+                .tag("stage", name)
+                .description("Work waiting for a stage worker")
+                .register(meterRegistry);
+        Gauge.builder("valuation.stage.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("stage", name)
+                .description("Work being processed by a stage")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("valuation.stage.wait")
+                .tag("stage", name)
+                .description("Time work spent queued before a stage worker picked it up")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("valuation.stage.rejected")
+                .tag("stage", name)
+                .description("Work refused because the stage queue was full")
+                .register(meterRegistry);
+        this.expired = Counter.builder("valuation.stage.expired")
+                .tag("stage", name)
+                .description("Queued work skipped because its deadline expired before a worker picked it up")
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @return A future completing with the task's result or exception, or failed with a
+     *         {@link StageOverloadedException} if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, Deadline.none());
+    }
+
+    /**
+     * Queues a task that is skipped if its deadline expires before a worker picks it up.
+     *
+     * @return A future completing with the task's result or exception, failed with a
+     *         {@link StageOverloadedException} if the queue is full, or with a
+     *         {@link Deadline.DeadlineExceededException} if the deadline expired first
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, Deadline deadline) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(deadline.exceeded("the " + name + " stage"));
+        }
+        QueuedTask<T> queued = new QueuedTask<>(task, deadline, this);
+        try {
+            executor.execute(queued);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            queued.result.completeExceptionally(new StageOverloadedException(name));
+        }
+        return queued.result;
+    }
+
+    /**
+     * Stops the workers; queued tasks fail so that nobody waits on them forever.
+     */
+    public void shutdown() {
+        for (Runnable pending : executor.shutdownNow()) {
+            if (pending instanceof QueuedTask<?> queued) {
+                queued.result.completeExceptionally(new RejectedExecutionException("The " + name + " stage was shut down"));
+            }
+        }
+    }
+
+    private static final class QueuedTask<T> implements Runnable {
+
+        private final Callable<T> task;
+        private final Deadline deadline;
+        private final ExecutionStage stage;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        QueuedTask(Callable<T> task, Deadline deadline, ExecutionStage stage) {
+            this.task = task;
+            this.deadline = deadline;
+            this.stage = stage;
+        }
+
+        @Override
+        public void run() {
+            stage.waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            if (deadline.isExpired()) {
+                stage.expired.increment();
+                result.completeExceptionally(deadline.exceeded("the " + stage.name + " stage"));
+                return;
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * The stage's queue is full; the caller should shed the request and retry later.
+     */
+    public static class StageOverloadedException extends RejectedExecutionException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String stage;
+
+        public StageOverloadedException(String stage) {
+            super("The " + stage + " stage is at capacity");
+            this.stage = stage;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+    }
+}
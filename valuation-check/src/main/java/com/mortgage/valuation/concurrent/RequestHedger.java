@@ -0,0 +1,190 @@
+package com.mortgage.valuation.concurrent;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Issues a second attempt of a slow operation and takes whichever attempt finishes first.
+ *
+ * The hedge is sent once the first attempt has run longer than a percentile of recent attempt
+ * latencies (but no sooner than the minimum delay), and only after enough latencies have been seen.
+ * A budget caps hedges at a fraction of all operations: each operation earns that fraction of a hedge,
+ * and each hedge spends one. When one attempt succeeds the other is cancelled; the operation fails only
+ * when every started attempt has failed. Failures are not retried here.
+ */
+public class RequestHedger {
+
+    // Cap on unused budget, so a quiet period does not allow a burst of hedges
+    private static final double MAX_HEDGE_CREDIT = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budgetRatio;
+    private final int minSamples;
+    private final long[] latencies;
+    private int nextLatency;
+    private int latencyCount;
+    private double hedgeCredit;
+    private long hedgesIssued;
+    private long hedgesWon;
+
+    public RequestHedger(double percentile, Duration minDelay, double budgetRatio, int windowSize, int minSamples) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        if (windowSize < 1 || minSamples < 1 || minSamples > windowSize) {
+            throw new IllegalArgumentException("Sample counts must satisfy 1 <= minSamples <= windowSize");
+        }
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetRatio = Math.max(0, budgetRatio);
+        this.minSamples = minSamples;
+        this.latencies = new long[windowSize];
+    }
+
+    /**
+     * Runs an operation, hedging it with a second attempt if the first is slow.
+     *
+     * @param attempt Starts attempt 0 (the original) or 1 (the hedge) and returns its future
+     * @return A future completing with the first successful attempt's result
+     */
+    public <T> CompletableFuture<T> execute(IntFunction<CompletableFuture<T>> attempt) {
+        Long delayNanos = earnCreditAndGetDelay();
+        HedgedCall<T> call = new HedgedCall<>(attempt);
+        call.start(0);
+        if (delayNanos != null) {
+            CompletableFuture.runAsync(() -> {
+                if (!call.result.isDone() && trySpendCredit()) {
+                    call.start(1);
+                }
+            }, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+        }
+        return call.result;
+    }
+
+    /**
+     * The current hedge delay, or null while fewer than the minimum samples have been recorded.
+     */
+    public synchronized Duration getHedgeDelay() {
+        Long delayNanos = hedgeDelayNanos();
+        return delayNanos != null ? Duration.ofNanos(delayNanos) : null;
+    }
+
+    public synchronized long getHedgesIssued() {
+        return hedgesIssued;
+    }
+
+    public synchronized long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    private synchronized Long earnCreditAndGetDelay() {
+        hedgeCredit = Math.min(MAX_HEDGE_CREDIT, hedgeCredit + budgetRatio);
+        return hedgeDelayNanos();
+    }
+
+    private synchronized boolean trySpendCredit() {
+        if (hedgeCredit < 1) {
+            return false;
+        }
+        hedgeCredit -= 1;
+        hedgesIssued++;
+        return true;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[nextLatency] = nanos;
+        nextLatency = (nextLatency + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    private synchronized void recordHedgeWon() {
+        hedgesWon++;
+    }
+
+    private Long hedgeDelayNanos() {
+        if (latencyCount < minSamples) {
+            return null;
+        }
+        long[] window = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(window);
+        int index = Math.min(window.length - 1, (int) Math.ceil(percentile * window.length) - 1);
+        return Math.max(minDelayNanos, window[Math.max(index, 0)]);
+    }
+
+    /**
+     * The attempts of one hedged operation.
+     */
+    private class HedgedCall<T> {
+
+        private final IntFunction<CompletableFuture<T>> attempt;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+        private int running;
+        private Throwable firstError;
+
+        HedgedCall(IntFunction<CompletableFuture<T>> attempt) {
+            this.attempt = attempt;
+            // Cancel the losing attempt, or all attempts if the caller cancels
+            result.whenComplete((value, error) -> attempts.forEach(future -> future.cancel(true)));
+        }
+
+        void start(int attemptNumber) {
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                running++;
+            }
+            long started = System.nanoTime();
+            CompletableFuture<T> future;
+            try {
+                future = attempt.apply(attemptNumber);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<T> current = future;
+            attempts.add(current);
+            if (result.isDone()) {
+                current.cancel(true);
+            }
+            current.whenComplete((value, error) -> {
+                if (error == null) {
+                    recordLatency(System.nanoTime() - started);
+                    // The win is counted and the loser cancelled before anyone waiting on the result wakes up
+                    synchronized (this) {
+                        if (result.isDone()) {
+                            return;
+                        }
+                        if (attemptNumber > 0) {
+                            recordHedgeWon();
+                        }
+                        attempts.forEach(other -> {
+                            if (other != current) {
+                                other.cancel(true);
+                            }
+                        });
+                        result.complete(value);
+                    }
+                    return;
+                }
+                boolean allFailed;
+                synchronized (this) {
+                    running--;
+                    if (firstError == null) {
+                        firstError = error;
+                    }
+                    allFailed = running == 0;
+                }
+                if (allFailed) {
+                    result.completeExceptionally(firstError);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mortgage.valuation.concurrent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller (the leader) starts the call, and
+ * callers arriving while it runs (followers) receive its result or exception instead of starting it
+ * again. The key is released as soon as the call finishes, so nothing is cached.
+ *
+ * The call runs under a deadline of its own rather than the leader's, so that a leader with little
+ * time left does not cut short the callers that joined it.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Starts an asynchronous call under a deadline of its own, or attaches to the one already running
+     * with the same key. The shared call gets at most the given timeout, and is cancelled as soon as
+     * every caller waiting for it has given up, so it runs as long as its most patient caller needs.
+     * Each caller's future fails with a {@link Deadline.DeadlineExceededException} once that caller's own
+     * deadline expires, and cancelling it does not affect the others.
+     *
+     * @param deadline The caller's deadline
+     * @param timeout The most time the shared call is given
+     * @param operation What the call does, for the {@link Deadline.DeadlineExceededException}
+     * @param call Starts the call under the shared deadline
+     */
+    public CompletableFuture<V> executeAsync(K key, Deadline deadline, Duration timeout, String operation,
+                                             Function<Deadline, CompletableFuture<V>> call) {
+        while (true) {
+            Flight<V> leader = new Flight<>(Deadline.after(timeout));
+            Flight<V> existing = inFlight.putIfAbsent(key, leader);
+            if (existing == null) {
+                leader.result.whenComplete((value, failure) -> leader.deadline.close());
+                start(key, leader, call);
+                return waitFor(leader, deadline, operation);
+            }
+            if (existing.join()) {
+                coalesced.increment();
+                return waitFor(existing, deadline, operation);
+            }
+            // Everyone waiting for the running call gave up and it is being cancelled; start a new one
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private void start(K key, Flight<V> leader, Function<Deadline, CompletableFuture<V>> call) {
+        CompletableFuture<V> result;
+        try {
+            result = call.apply(leader.deadline);
+        } catch (Throwable t) {
+            result = CompletableFuture.failedFuture(t);
+        }
+        result.whenComplete((value, failure) -> {
+            inFlight.remove(key, leader);
+            if (failure != null) {
+                leader.result.completeExceptionally(failure);
+            } else {
+                leader.result.complete(value);
+            }
+        });
+    }
+
+    private CompletableFuture<V> waitFor(Flight<V> flight, Deadline deadline, String operation) {
+        CompletableFuture<V> view = deadline.bound(flight.result, operation);
+        view.whenComplete((value, failure) -> flight.leave());
+        return view;
+    }
+
+    /**
+     * Returns how many calls were served by another caller's result.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns how many keys are currently running.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * One running call, its deadline and how many callers are still waiting for it.
+     */
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final Deadline deadline;
+        private int waiters = 1;
+
+        Flight(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Adds a waiter, unless all of them have already left.
+         */
+        synchronized boolean join() {
+            if (waiters == 0) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        void leave() {
+            boolean abandoned;
+            synchronized (this) {
+                abandoned = --waiters == 0 && !result.isDone();
+            }
+            if (abandoned) {
+                deadline.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mortgage.valuation.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rate limiter with two token buckets refilled continuously: one for requests per minute and one for
+ * tokens per minute, matching how Azure OpenAI deployment quotas are expressed.
+ *
+ * Both buckets start full, so a burst of up to a minute's quota is admitted immediately. The limiter
+ * can also be paused, e.g. for the duration of a Retry-After header.
+ *
+ * Callers wait on a lock condition, not in {@code Object.wait}, so waiting virtual threads unmount.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final double requestCapacity;
+    private final double tokenCapacity;
+    private double availableRequests;
+    private double availableTokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition refilled = lock.newCondition();
+
+    public TokenBucketRateLimiter(int requestsPerMinute, long tokensPerMinute) {
+        if (requestsPerMinute < 1 || tokensPerMinute < 1) {
+            throw new IllegalArgumentException("requestsPerMinute and tokensPerMinute must be at least 1");
+        }
+        this.requestCapacity = requestsPerMinute;
+        this.tokenCapacity = tokensPerMinute;
+        this.availableRequests = requestCapacity;
+        this.availableTokens = tokenCapacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Takes one request and the given number of tokens, waiting until both are available.
+     *
+     * @param tokens Estimated tokens the request will consume; capped at the bucket capacity
+     * @param timeout How long to wait at most
+     * @return True if the permit was taken, false if it would not become available within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire(long tokens, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            double cost = Math.min(tokens, tokenCapacity);
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                if (now >= pausedUntilNanos && availableRequests >= 1 && availableTokens >= cost) {
+                    availableRequests -= 1;
+                    availableTokens -= cost;
+                    return true;
+                }
+
+                long waitNanos = Math.max(pausedUntilNanos - now,
+                        Math.max(nanosUntil(1 - availableRequests, requestCapacity),
+                                nanosUntil(cost - availableTokens, tokenCapacity)));
+                if (now + waitNanos > deadline) {
+                    return false;
+                }
+                refilled.awaitNanos(Math.max(waitNanos, 1));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops admitting requests for the given duration.
+     */
+    public void pause(Duration duration) {
+        lock.lock();
+        try {
+            pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + duration.toNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAvailableRequests() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return availableRequests;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAvailableTokens() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return availableTokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            availableRequests = Math.min(requestCapacity, availableRequests + requestCapacity * elapsed / NANOS_PER_MINUTE);
+            availableTokens = Math.min(tokenCapacity, availableTokens + tokenCapacity * elapsed / NANOS_PER_MINUTE);
+            lastRefillNanos = now;
+        }
+    }
+
+    private static long nanosUntil(double missing, double perMinute) {
+        return missing <= 0 ? 0 : (long) Math.ceil(missing * NANOS_PER_MINUTE / perMinute);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mortgage.valuation.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the services' worker pools, honouring {@code spring.threads.virtual.enabled}.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates threads named {@code namePrefix} followed by a sequence number.
+     *
+     * @param namePrefix The thread name prefix, e.g. "llm-fan-out-"
+     * @param virtual Whether to create virtual threads; otherwise daemon platform threads are created
+     */
+    public static ThreadFactory factory(String namePrefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(namePrefix, 1).factory();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,12 +1,14 @@
 package com.mortgage.valuation.config;
 
-import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import com.azure.ai.documentintelligence.DocumentIntelligenceAsyncClient;
 import com.azure.ai.documentintelligence.DocumentIntelligenceClientBuilder;
 import com.azure.core.credential.AzureKeyCredential;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Azure Document Intelligence configuration for PDF text extraction.
  */
@@ -16,13 +18,20 @@ public class AzureDocumentIntelligenceConfig {
 
     private String endpoint;
     private String apiKey;
+    private String modelId = "prebuilt-receipt";
+    private Cache cache = new Cache();
+    private Polling polling = new Polling();
+    private Sharding sharding = new Sharding();
+    private LocalTextLayer localTextLayer = new LocalTextLayer();
+    private ModelSelection modelSelection = new ModelSelection();
+    private Hedging hedging = new Hedging();
 
     @Bean
-    public DocumentIntelligenceClient documentIntelligenceClient() {
+    public DocumentIntelligenceAsyncClient documentIntelligenceAsyncClient() {
         return new DocumentIntelligenceClientBuilder()
                 .endpoint(endpoint)
                 .credential(new AzureKeyCredential(apiKey))
-                .buildClient();
+                .buildAsyncClient();
     }
 
     // Getters and setters
@@ -41,4 +50,364 @@ public class AzureDocumentIntelligenceConfig {
     public void setApiKey(String apiKey) {
         this.apiKey = apiKey;
     }
+
+    public String getModelId() {
+        return modelId;
+    }
+
+    public void setModelId(String modelId) {
+        this.modelId = modelId;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public Polling getPolling() {
+        return polling;
+    }
+
+    public void setPolling(Polling polling) {
+        this.polling = polling;
+    }
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    public void setSharding(Sharding sharding) {
+        this.sharding = sharding;
+    }
+
+    public LocalTextLayer getLocalTextLayer() {
+        return localTextLayer;
+    }
+
+    public void setLocalTextLayer(LocalTextLayer localTextLayer) {
+        this.localTextLayer = localTextLayer;
+    }
+
+    public ModelSelection getModelSelection() {
+        return modelSelection;
+    }
+
+    public void setModelSelection(ModelSelection modelSelection) {
+        this.modelSelection = modelSelection;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
+    /**
+     * Per-document choice of analyzer model. When disabled, every document uses {@code model-id}.
+     */
+    public static class ModelSelection {
+
+        private boolean enabled = true;
+        private String readModelId = "prebuilt-read";
+        private String layoutModelId = "prebuilt-layout";
+        private int layoutMaxPages = 10;
+        private long layoutMaxFileSizeMb = 10;
+        private double readMinTextLayerFraction = 0.5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getReadModelId() {
+            return readModelId;
+        }
+
+        public void setReadModelId(String readModelId) {
+            this.readModelId = readModelId;
+        }
+
+        public String getLayoutModelId() {
+            return layoutModelId;
+        }
+
+        public void setLayoutModelId(String layoutModelId) {
+            this.layoutModelId = layoutModelId;
+        }
+
+        public int getLayoutMaxPages() {
+            return layoutMaxPages;
+        }
+
+        public void setLayoutMaxPages(int layoutMaxPages) {
+            this.layoutMaxPages = layoutMaxPages;
+        }
+
+        public long getLayoutMaxFileSizeMb() {
+            return layoutMaxFileSizeMb;
+        }
+
+        public void setLayoutMaxFileSizeMb(long layoutMaxFileSizeMb) {
+            this.layoutMaxFileSizeMb = layoutMaxFileSizeMb;
+        }
+
+        public double getReadMinTextLayerFraction() {
+            return readMinTextLayerFraction;
+        }
+
+        public void setReadMinTextLayerFraction(double readMinTextLayerFraction) {
+            this.readMinTextLayerFraction = readMinTextLayerFraction;
+        }
+    }
+
+    /**
+     * Local extraction of the embedded PDF text layer; only pages without a usable text layer are
+     * sent to the remote analyzer.
+     */
+    public static class LocalTextLayer {
+
+        private boolean enabled = true;
+        private boolean forceRemote = false;
+        private int minCharsPerPage = 200;
+        private double minQualityScore = 0.85;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isForceRemote() {
+            return forceRemote;
+        }
+
+        public void setForceRemote(boolean forceRemote) {
+            this.forceRemote = forceRemote;
+        }
+
+        public int getMinCharsPerPage() {
+            return minCharsPerPage;
+        }
+
+        public void setMinCharsPerPage(int minCharsPerPage) {
+            this.minCharsPerPage = minCharsPerPage;
+        }
+
+        public double getMinQualityScore() {
+            return minQualityScore;
+        }
+
+        public void setMinQualityScore(double minQualityScore) {
+            this.minQualityScore = minQualityScore;
+        }
+
+        /**
+         * Whether the local text layer should be used for the current request.
+         */
+        public boolean isActive() {
+            return enabled && !forceRemote;
+        }
+    }
+
+    /**
+     * Splitting of long documents into page-range shards that are analyzed concurrently.
+     */
+    public static class Sharding {
+
+        private boolean enabled = true;
+        private int pageThreshold = 20;
+        private int pagesPerShard = 10;
+        private int maxConcurrentShardsPerRequest = 4;
+        private int maxConcurrentShards = 32;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPageThreshold() {
+            return pageThreshold;
+        }
+
+        public void setPageThreshold(int pageThreshold) {
+            this.pageThreshold = pageThreshold;
+        }
+
+        public int getPagesPerShard() {
+            return pagesPerShard;
+        }
+
+        public void setPagesPerShard(int pagesPerShard) {
+            this.pagesPerShard = pagesPerShard;
+        }
+
+        public int getMaxConcurrentShardsPerRequest() {
+            return maxConcurrentShardsPerRequest;
+        }
+
+        public void setMaxConcurrentShardsPerRequest(int maxConcurrentShardsPerRequest) {
+            this.maxConcurrentShardsPerRequest = maxConcurrentShardsPerRequest;
+        }
+
+        public int getMaxConcurrentShards() {
+            return maxConcurrentShards;
+        }
+
+        public void setMaxConcurrentShards(int maxConcurrentShards) {
+            this.maxConcurrentShards = maxConcurrentShards;
+        }
+    }
+
+    /**
+     * Polling schedule for long-running analyze operations. A Retry-After header returned by the
+     * service takes precedence over the computed interval.
+     */
+    public static class Polling {
+
+        private Duration initialDelay = Duration.ofSeconds(1);
+        private double multiplier = 1.5;
+        private Duration maxInterval = Duration.ofSeconds(10);
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Duration getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+    }
+
+    /**
+     * Hedging of slow analyze operations: a second analyze request is sent once the first has run past a
+     * percentile of recent latencies for its model, within a budget of hedges as a percentage of requests.
+     */
+    public static class Hedging {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofSeconds(5);
+        private double budgetPercent = 5;
+        private int windowSize = 200;
+        private int minSamples = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    /**
+     * Persistent cache of extraction results, keyed by PDF content hash and analyzer model.
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/valuation-app/extraction-cache";
+        private long maxSizeMb = 256;
+        private Duration ttl = Duration.ofDays(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxSizeMb() {
+            return maxSizeMb;
+        }
+
+        public void setMaxSizeMb(long maxSizeMb) {
+            this.maxSizeMb = maxSizeMb;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
 }
@@ -1,11 +1,23 @@
 package com.mortgage.valuation.config;
 
-import com.azure.ai.openai.OpenAIClient;
 import com.azure.ai.openai.OpenAIClientBuilder;
 import com.azure.core.credential.AzureKeyCredential;
+import com.azure.core.http.policy.FixedDelayOptions;
+import com.azure.core.http.policy.RetryOptions;
+import com.mortgage.valuation.service.DeploymentRateLimiter;
+import com.mortgage.valuation.service.OpenAIDeploymentPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Azure OpenAI configuration for processing extracted text.
@@ -19,13 +31,61 @@ public class AzureOpenAIConfig {
     private String deploymentName;
     private Integer maxTokens = 4000;
     private Double temperature = 0.1;
+    private boolean streaming = true;
+    private FanOut fanOut = new FanOut();
+    private Repair repair = new Repair();
+    private Cache cache = new Cache();
+    private RateLimit rateLimit = new RateLimit();
+
+    private List<Deployment> deployments = new ArrayList<>();
+    private Routing routing = new Routing();
+    private Hedging hedging = new Hedging();
 
     @Bean
-    public OpenAIClient openAIClient() {
-        return new OpenAIClientBuilder()
-                .endpoint(endpoint)
-                .credential(new AzureKeyCredential(apiKey))
-                .buildClient();
+    public OpenAIDeploymentPool openAIDeploymentPool(Environment environment, MeterRegistry meterRegistry) {
+        List<OpenAIDeploymentPool.PooledDeployment> pooled = new ArrayList<>();
+        for (Deployment deployment : resolveDeployments()) {
+            RateLimit limits = deployment.getRateLimit() != null ? deployment.getRateLimit() : rateLimit;
+            OpenAIClientBuilder builder = new OpenAIClientBuilder()
+                    .endpoint(deployment.getEndpoint())
+                    .credential(new AzureKeyCredential(deployment.getApiKey()));
+            if (limits.isEnabled()) {
+                // Retries (and 429 back-off) are handled by the client-side rate limiter instead
+                builder.retryOptions(new RetryOptions(new FixedDelayOptions(0, Duration.ofSeconds(1))));
+            }
+            pooled.add(new OpenAIDeploymentPool.PooledDeployment(deployment.getName(), builder.buildClient(),
+                    deployment.getDeploymentName(), deployment.getWeight(),
+                    limits.isEnabled() ? new DeploymentRateLimiter(deployment.getName(), limits, meterRegistry) : null));
+        }
+        return new OpenAIDeploymentPool(pooled, routing, hedging, Threading.VIRTUAL.isActive(environment),
+                meterRegistry);
+    }
+
+    /**
+     * The configured deployment pool, or the top-level endpoint and deployment when none is configured.
+     * Missing endpoint, key or deployment name on a pool entry fall back to the top-level values.
+     */
+    public List<Deployment> resolveDeployments() {
+        if (deployments.isEmpty()) {
+            Deployment single = new Deployment();
+            single.setName(deploymentName);
+            single.setEndpoint(endpoint);
+            single.setApiKey(apiKey);
+            single.setDeploymentName(deploymentName);
+            return List.of(single);
+        }
+        List<Deployment> resolved = new ArrayList<>();
+        for (Deployment deployment : deployments) {
+            Deployment copy = new Deployment();
+            copy.setEndpoint(deployment.getEndpoint() != null ? deployment.getEndpoint() : endpoint);
+            copy.setApiKey(deployment.getApiKey() != null ? deployment.getApiKey() : apiKey);
+            copy.setDeploymentName(deployment.getDeploymentName() != null ? deployment.getDeploymentName() : deploymentName);
+            copy.setName(deployment.getName() != null ? deployment.getName() : copy.getDeploymentName() + "@" + copy.getEndpoint());
+            copy.setWeight(deployment.getWeight());
+            copy.setRateLimit(deployment.getRateLimit());
+            resolved.add(copy);
+        }
+        return resolved;
     }
 
     // Getters and setters
@@ -68,4 +128,470 @@ public class AzureOpenAIConfig {
     public void setTemperature(Double temperature) {
         this.temperature = temperature;
     }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public FanOut getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(FanOut fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public Repair getRepair() {
+        return repair;
+    }
+
+    public void setRepair(Repair repair) {
+        this.repair = repair;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public List<Deployment> getDeployments() {
+        return deployments;
+    }
+
+    public void setDeployments(List<Deployment> deployments) {
+        this.deployments = deployments;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging;
+    }
+
+    /**
+     * Hedging of slow completions: a second attempt goes to another deployment (the same one if there is
+     * only one) once the first has run past a percentile of recent latencies, within a budget of hedges
+     * as a percentage of completions.
+     */
+    public static class Hedging {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofSeconds(2);
+        private double budgetPercent = 5;
+        private int windowSize = 200;
+        private int minSamples = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+
+    /**
+     * One endpoint/deployment pair in the routing pool. Weight scales the share of traffic it receives
+     * at equal latency; rate-limit overrides the top-level limits for this deployment's quota.
+     */
+    public static class Deployment {
+
+        private String name;
+        private String endpoint;
+        private String apiKey;
+        private String deploymentName;
+        private double weight = 1.0;
+        private RateLimit rateLimit;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public void setApiKey(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        public String getDeploymentName() {
+            return deploymentName;
+        }
+
+        public void setDeploymentName(String deploymentName) {
+            this.deploymentName = deploymentName;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+    }
+
+    /**
+     * Latency-aware routing across the deployment pool: EWMA decay factors for latency and error rate,
+     * the error-rate ejection policy, and the number of threads running hedged or deadline-bound calls.
+     */
+    public static class Routing {
+
+        private double latencyDecay = 0.3;
+        private double errorDecay = 0.2;
+        private double errorRateThreshold = 0.5;
+        private int minSamples = 5;
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+        private int maxFailovers = 1;
+        private int maxConcurrentCalls = 64;
+
+        public double getLatencyDecay() {
+            return latencyDecay;
+        }
+
+        public void setLatencyDecay(double latencyDecay) {
+            this.latencyDecay = latencyDecay;
+        }
+
+        public double getErrorDecay() {
+            return errorDecay;
+        }
+
+        public void setErrorDecay(double errorDecay) {
+            this.errorDecay = errorDecay;
+        }
+
+        public double getErrorRateThreshold() {
+            return errorRateThreshold;
+        }
+
+        public void setErrorRateThreshold(double errorRateThreshold) {
+            this.errorRateThreshold = errorRateThreshold;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public Duration getEjectionDuration() {
+            return ejectionDuration;
+        }
+
+        public void setEjectionDuration(Duration ejectionDuration) {
+            this.ejectionDuration = ejectionDuration;
+        }
+
+        public int getMaxFailovers() {
+            return maxFailovers;
+        }
+
+        public void setMaxFailovers(int maxFailovers) {
+            this.maxFailovers = maxFailovers;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+    }
+
+    /**
+     * Client-side limits for the deployment: a requests- and tokens-per-minute budget matching its quota,
+     * and an adaptive (AIMD) concurrency limit that backs off on 429 responses. Disabled by default, since
+     * the budget is only useful once it is set to the deployment's actual quota.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = false;
+        private int requestsPerMinute = 360;
+        private long tokensPerMinute = 60000;
+        private int initialConcurrency = 4;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 32;
+        private double backoffRatio = 0.5;
+        private int maxRetries = 3;
+        private Duration defaultRetryAfter = Duration.ofSeconds(10);
+        private Duration maxWait = Duration.ofSeconds(60);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public void setRequestsPerMinute(int requestsPerMinute) {
+            this.requestsPerMinute = requestsPerMinute;
+        }
+
+        public long getTokensPerMinute() {
+            return tokensPerMinute;
+        }
+
+        public void setTokensPerMinute(long tokensPerMinute) {
+            this.tokensPerMinute = tokensPerMinute;
+        }
+
+        public int getInitialConcurrency() {
+            return initialConcurrency;
+        }
+
+        public void setInitialConcurrency(int initialConcurrency) {
+            this.initialConcurrency = initialConcurrency;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getDefaultRetryAfter() {
+            return defaultRetryAfter;
+        }
+
+        public void setDefaultRetryAfter(Duration defaultRetryAfter) {
+            this.defaultRetryAfter = defaultRetryAfter;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * Persistent cache of parsed completions, keyed by normalized text, prompt version, deployment and
+     * sampling settings. Entries live in a subdirectory per prompt template version.
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/valuation-app/llm-cache";
+        private long maxSizeMb = 64;
+        private Duration ttl = Duration.ofDays(7);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxSizeMb() {
+            return maxSizeMb;
+        }
+
+        public void setMaxSizeMb(long maxSizeMb) {
+            this.maxSizeMb = maxSizeMb;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Follow-up completions for answers that fail validation. Only the failing questions are asked
+     * again; answers still invalid after the last attempt are set to null.
+     */
+    public static class Repair {
+
+        private boolean enabled = true;
+        private int maxAttempts = 1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    /**
+     * Splitting of the VR4B mapping table into question groups that are completed concurrently. The
+     * concurrency limit applies to each request; calls across requests are bounded by the valuation stage
+     * workers and the deployment pool.
+     */
+    public static class FanOut {
+
+        private boolean enabled = false;
+        private int maxConcurrencyPerRequest = 5;
+        // Group name -> question ids; empty uses the default groups of the mapping table
+        private Map<String, List<String>> groups = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrencyPerRequest() {
+            return maxConcurrencyPerRequest;
+        }
+
+        public void setMaxConcurrencyPerRequest(int maxConcurrencyPerRequest) {
+            this.maxConcurrencyPerRequest = maxConcurrencyPerRequest;
+        }
+
+        public Map<String, List<String>> getGroups() {
+            return groups;
+        }
+
+        public void setGroups(Map<String, List<String>> groups) {
+            this.groups = groups;
+        }
+    }
 }
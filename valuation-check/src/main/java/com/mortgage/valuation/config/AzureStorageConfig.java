@@ -3,6 +3,8 @@ package com.mortgage.valuation.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration properties for Azure Storage.
  */
@@ -13,6 +15,10 @@ public class AzureStorageConfig {
     private String connectionString;
     private String containerName = "lending-property";
     private String valuationReportsPath = "property-valuation-reports";
+    private DownloadMode downloadMode = DownloadMode.MAPPED;
+    private Cache cache = new Cache();
+    private Index index = new Index();
+    private Download download = new Download();
 
     public String getConnectionString() {
         return connectionString;
@@ -38,6 +44,38 @@ public class AzureStorageConfig {
         this.valuationReportsPath = valuationReportsPath;
     }
 
+    public DownloadMode getDownloadMode() {
+        return downloadMode;
+    }
+
+    public void setDownloadMode(DownloadMode downloadMode) {
+        this.downloadMode = downloadMode;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    public Index getIndex() {
+        return index;
+    }
+
+    public void setIndex(Index index) {
+        this.index = index;
+    }
+
+    public Download getDownload() {
+        return download;
+    }
+
+    public void setDownload(Download download) {
+        this.download = download;
+    }
+
     /**
      * Builds the full blob path for a valuation report.
      * 
@@ -48,4 +86,127 @@ public class AzureStorageConfig {
     public String buildBlobPath(String loanApplicationId, String requestId) {
         return String.format("%s/%s/%s", valuationReportsPath, loanApplicationId, requestId);
     }
-}
\ No newline at end of file
+
+    /**
+     * How downloaded reports are held while they move through the pipeline.
+     */
+    public enum DownloadMode {
+        /** Buffer the whole report in a heap byte array. */
+        HEAP,
+        /** Stream the report to a local file and memory-map it read-only. */
+        MAPPED
+    }
+
+    /**
+     * Local disk cache for downloaded valuation reports, keyed by blob name and ETag.
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+        private String directory = System.getProperty("java.io.tmpdir") + "/valuation-app/report-cache";
+        private long maxSizeMb = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getMaxSizeMb() {
+            return maxSizeMb;
+        }
+
+        public void setMaxSizeMb(long maxSizeMb) {
+            this.maxSizeMb = maxSizeMb;
+        }
+    }
+
+    /**
+     * In-memory index of report blobs, used instead of a prefix listing on every request. It is filled
+     * by lookups and a warm-up at startup; the periodic rescan lists every blob under the reports path,
+     * so its cost grows with the container and it is off by default.
+     */
+    public static class Index {
+
+        private boolean enabled = true;
+        private boolean rescanEnabled = false;
+        private Duration rescanInterval = Duration.ofMinutes(5);
+        private Duration warmupLookback = Duration.ofDays(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isRescanEnabled() {
+            return rescanEnabled;
+        }
+
+        public void setRescanEnabled(boolean rescanEnabled) {
+            this.rescanEnabled = rescanEnabled;
+        }
+
+        public Duration getRescanInterval() {
+            return rescanInterval;
+        }
+
+        public void setRescanInterval(Duration rescanInterval) {
+            this.rescanInterval = rescanInterval;
+        }
+
+        public Duration getWarmupLookback() {
+            return warmupLookback;
+        }
+
+        public void setWarmupLookback(Duration warmupLookback) {
+            this.warmupLookback = warmupLookback;
+        }
+    }
+
+    /**
+     * Parallel ranged download settings for large reports.
+     */
+    public static class Download {
+
+        private long parallelThresholdMb = 8;
+        private long blockSizeMb = 4;
+        private int maxConcurrency = 8;
+
+        public long getParallelThresholdMb() {
+            return parallelThresholdMb;
+        }
+
+        public void setParallelThresholdMb(long parallelThresholdMb) {
+            this.parallelThresholdMb = parallelThresholdMb;
+        }
+
+        public long getBlockSizeMb() {
+            return blockSizeMb;
+        }
+
+        public void setBlockSizeMb(long blockSizeMb) {
+            this.blockSizeMb = blockSizeMb;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+    }
+}
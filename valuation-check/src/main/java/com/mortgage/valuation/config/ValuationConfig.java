@@ -0,0 +1,387 @@
+package com.mortgage.valuation.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the valuation processing pipeline.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.valuation")
+public class ValuationConfig {
+
+    private String pdfPathTemplate;
+    private int timeoutSeconds = 300;
+    private int maxFileSizeMb = 50;
+    private TextReduction textReduction = new TextReduction();
+    private RuleExtraction ruleExtraction = new RuleExtraction();
+    private Jobs jobs = new Jobs();
+    private Batch batch = new Batch();
+    private Coalescing coalescing = new Coalescing();
+    private Streams streams = new Streams();
+    private Stages stages = new Stages();
+
+    public String getPdfPathTemplate() {
+        return pdfPathTemplate;
+    }
+
+    public void setPdfPathTemplate(String pdfPathTemplate) {
+        this.pdfPathTemplate = pdfPathTemplate;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public int getMaxFileSizeMb() {
+        return maxFileSizeMb;
+    }
+
+    public void setMaxFileSizeMb(int maxFileSizeMb) {
+        this.maxFileSizeMb = maxFileSizeMb;
+    }
+
+    /**
+     * Returns the maximum accepted report size in bytes.
+     */
+    public long getMaxFileSizeBytes() {
+        return maxFileSizeMb * 1024L * 1024L;
+    }
+
+    public TextReduction getTextReduction() {
+        return textReduction;
+    }
+
+    public void setTextReduction(TextReduction textReduction) {
+        this.textReduction = textReduction;
+    }
+
+    public RuleExtraction getRuleExtraction() {
+        return ruleExtraction;
+    }
+
+    public void setRuleExtraction(RuleExtraction ruleExtraction) {
+        this.ruleExtraction = ruleExtraction;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(Jobs jobs) {
+        this.jobs = jobs;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public Stages getStages() {
+        return stages;
+    }
+
+    public void setStages(Stages stages) {
+        this.stages = stages;
+    }
+
+    public Streams getStreams() {
+        return streams;
+    }
+
+    public void setStreams(Streams streams) {
+        this.streams = streams;
+    }
+
+    /**
+     * Asynchronous valuation jobs: a bounded worker pool with a bounded queue, and how long finished
+     * jobs stay retrievable.
+     */
+    public static class Jobs {
+
+        private int workers = 8;
+        private int queueCapacity = 100;
+        private Duration retention = Duration.ofHours(1);
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * Staged execution of the pipeline: download, extraction and valuation each have their own workers
+     * and bounded queue. Work arriving at a full queue is refused with 503 and this Retry-After.
+     */
+    public static class Stages {
+
+        private Duration retryAfter = Duration.ofSeconds(5);
+        private Stage download = new Stage();
+        private Stage extraction = new Stage();
+        private Stage valuation = new Stage();
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public Stage getDownload() {
+            return download;
+        }
+
+        public void setDownload(Stage download) {
+            this.download = download;
+        }
+
+        public Stage getExtraction() {
+            return extraction;
+        }
+
+        public void setExtraction(Stage extraction) {
+            this.extraction = extraction;
+        }
+
+        public Stage getValuation() {
+            return valuation;
+        }
+
+        public void setValuation(Stage valuation) {
+            this.valuation = valuation;
+        }
+    }
+
+    public static class Stage {
+
+        private int concurrency = 16;
+        private int queueCapacity = 100;
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Server-sent progress streams: each open stream runs its pipeline on a dedicated worker, and streams
+     * beyond the limit are refused.
+     */
+    public static class Streams {
+
+        private int maxConcurrent = 50;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    /**
+     * Coalescing of concurrent identical valuation requests, keyed on loan application and request ID.
+     */
+    public static class Coalescing {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Batch valuation: how many requests a batch may hold, and how many of its items may be between
+     * download and their result at once.
+     */
+    public static class Batch {
+
+        private int maxItems = 5000;
+        private int maxInFlight = 32;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    /**
+     * Local, pattern-based extraction of rigidly formatted answers before the LLM call.
+     */
+    public static class RuleExtraction {
+
+        private boolean enabled = true;
+        private double minConfidence = 0.9;
+        private int labelWindow = 120;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getMinConfidence() {
+            return minConfidence;
+        }
+
+        public void setMinConfidence(double minConfidence) {
+            this.minConfidence = minConfidence;
+        }
+
+        public int getLabelWindow() {
+            return labelWindow;
+        }
+
+        public void setLabelWindow(int labelWindow) {
+            this.labelWindow = labelWindow;
+        }
+    }
+
+    /**
+     * Pruning of extracted report text before it is sent to the LLM. Headings are matched
+     * case-insensitively as substrings.
+     */
+    public static class TextReduction {
+
+        private boolean enabled = true;
+        private int headerFooterLines = 3;
+        private double headerFooterMinPageFraction = 0.5;
+        private int maxHeadingLength = 80;
+        private boolean keepUnclassifiedSections = true;
+        private List<String> boilerplateHeadings = new ArrayList<>(List.of(
+                "terms and conditions", "terms of engagement", "general conditions", "disclaimer",
+                "limitations", "assumptions", "important notice", "definitions", "complaints",
+                "data protection", "privacy notice", "liability", "copyright", "glossary"));
+        private List<String> relevantHeadings = new ArrayList<>(List.of(
+                "lender", "applicant", "property", "address", "transaction", "purchase", "inspection",
+                "certification", "suitable security", "security", "construction", "specialist", "licensing",
+                "valuation", "market value", "market rent", "reinstatement", "retention", "tenure", "lease",
+                "access", "flats", "floors", "lift", "new build", "declaration", "valuer", "qualification",
+                "photograph"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getHeaderFooterLines() {
+            return headerFooterLines;
+        }
+
+        public void setHeaderFooterLines(int headerFooterLines) {
+            this.headerFooterLines = headerFooterLines;
+        }
+
+        public double getHeaderFooterMinPageFraction() {
+            return headerFooterMinPageFraction;
+        }
+
+        public void setHeaderFooterMinPageFraction(double headerFooterMinPageFraction) {
+            this.headerFooterMinPageFraction = headerFooterMinPageFraction;
+        }
+
+        public int getMaxHeadingLength() {
+            return maxHeadingLength;
+        }
+
+        public void setMaxHeadingLength(int maxHeadingLength) {
+            this.maxHeadingLength = maxHeadingLength;
+        }
+
+        public boolean isKeepUnclassifiedSections() {
+            return keepUnclassifiedSections;
+        }
+
+        public void setKeepUnclassifiedSections(boolean keepUnclassifiedSections) {
+            this.keepUnclassifiedSections = keepUnclassifiedSections;
+        }
+
+        public List<String> getBoilerplateHeadings() {
+            return boilerplateHeadings;
+        }
+
+        public void setBoilerplateHeadings(List<String> boilerplateHeadings) {
+            this.boilerplateHeadings = boilerplateHeadings;
+        }
+
+        public List<String> getRelevantHeadings() {
+            return relevantHeadings;
+        }
+
+        public void setRelevantHeadings(List<String> relevantHeadings) {
+            this.relevantHeadings = relevantHeadings;
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package com.mortgage.valuation.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.exception.ValuationErrorMapper;
 import com.mortgage.valuation.model.ErrorResponse;
+import com.mortgage.valuation.model.ValuationJob;
 import com.mortgage.valuation.model.ValuationRequest;
 import com.mortgage.valuation.model.ValuationResponse;
-import com.mortgage.valuation.service.AzureOpenAIService;
-import com.mortgage.valuation.service.PdfTextExtractionService;
-import com.mortgage.valuation.service.AzureStorageService;
+import com.mortgage.valuation.service.ValuationBatchService;
+import com.mortgage.valuation.service.ValuationJobService;
+import com.mortgage.valuation.service.ValuationPipeline;
+import com.mortgage.valuation.service.ValuationStreamService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for property valuation processing.
@@ -26,86 +49,179 @@ public class ValuationController {
 
     private static final Logger logger = LoggerFactory.getLogger(ValuationController.class);
 
-    private final AzureStorageService azureStorageService;
-    private final PdfTextExtractionService pdfTextExtractionService;
-    private final AzureOpenAIService azureOpenAIService;
+    static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final ValuationPipeline valuationPipeline;
+    private final ValuationJobService valuationJobService;
+    private final ValuationBatchService valuationBatchService;
+    private final ValuationStreamService valuationStreamService;
+    private final ValuationErrorMapper valuationErrorMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ValuationConfig valuationConfig;
 
     @Autowired
-    public ValuationController(AzureStorageService azureStorageService,
-                             PdfTextExtractionService pdfTextExtractionService,
-                             AzureOpenAIService azureOpenAIService) {
-        this.azureStorageService = azureStorageService;
-        this.pdfTextExtractionService = pdfTextExtractionService;
-        this.azureOpenAIService = azureOpenAIService;
+    public ValuationController(ValuationPipeline valuationPipeline,
+                             ValuationJobService valuationJobService,
+                             ValuationBatchService valuationBatchService,
+                             ValuationStreamService valuationStreamService,
+                             ValuationErrorMapper valuationErrorMapper,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             ValuationConfig valuationConfig) {
+        this.valuationPipeline = valuationPipeline;
+        this.valuationJobService = valuationJobService;
+        this.valuationBatchService = valuationBatchService;
+        this.valuationStreamService = valuationStreamService;
+        this.valuationErrorMapper = valuationErrorMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.valuationConfig = valuationConfig;
     }
 
     /**
      * Processes a property valuation request.
      * 
      * @param request The valuation request containing requestId
+     * @param requestTimeout The caller's remaining budget in milliseconds; it can only shorten the
+     *                       configured timeout
      * @param httpRequest The HTTP request for error context
-     * @return Structured valuation response
+     * @return Structured valuation response, 503 with Retry-After when a pipeline stage is at capacity,
+     *         or 504 when the deadline expires
      */
     @PostMapping("/process")
-    public ResponseEntity<?> processValuation(@Valid @RequestBody ValuationRequest request, 
+    public ResponseEntity<?> processValuation(@Valid @RequestBody ValuationRequest request,
+                                            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false)
+                                            String requestTimeout,
                                             HttpServletRequest httpRequest) {
         String requestId = request.getRequestId();
         String loanApplicationId = request.getLoanApplicationId();
         logger.info("Processing valuation request: {} for loan application: {}", requestId, loanApplicationId);
 
+        try (Deadline deadline = Deadline.after(requestTimeout(requestTimeout, requestId))) {
+            ValuationResponse valuationResponse = valuationPipeline.process(loanApplicationId, requestId, deadline);
+            return ResponseEntity.ok(valuationResponse);
+        } catch (Exception e) {
+            return toResponse(valuationErrorMapper.toErrorResponse(e, httpRequest.getRequestURI(), requestId));
+        }
+    }
+
+    /**
+     * Processes a property valuation request, streaming its progress as server-sent events: a
+     * {@code stage} event after the download, text extraction and LLM start, an {@code answer} event per
+     * answer, then {@code complete} with the valuation response or {@code error} with the error response.
+     * Parameters are taken from the query string so that browsers can connect with EventSource.
+     *
+     * @param requestId The request ID
+     * @param loanApplicationId The loan application the report belongs to
+     * @param httpRequest The HTTP request for error context
+     * @return The event stream, 400 if the parameters are invalid, or 503 if too many streams are open
+     */
+    // The body type is declared so that Spring MVC streams it; errors are sent through an emitter too
+    @GetMapping("/process/stream")
+    public ResponseEntity<ResponseBodyEmitter> streamValuation(@RequestParam(required = false) String requestId,
+                                                               @RequestParam(required = false) String loanApplicationId,
+                                                               HttpServletRequest httpRequest) throws IOException {
+        String path = httpRequest.getRequestURI();
+        Set<ConstraintViolation<ValuationRequest>> violations =
+            validator.validate(new ValuationRequest(requestId, loanApplicationId));
+        if (!violations.isEmpty()) {
+            return toEmitterResponse(valuationErrorMapper.toValidationErrorResponse(violations, path, requestId));
+        }
+        logger.info("Streaming valuation request: {} for loan application: {}", requestId, loanApplicationId);
+
         try {
-            // Step 1: Download PDF from Azure Storage
-            logger.info("Step 1: Downloading PDF from Azure Storage for request: {} and loan application: {}", 
-                requestId, loanApplicationId);
-            byte[] pdfContent = azureStorageService.fetchValuationReport(loanApplicationId, requestId);
-
-            // Step 2: Validate PDF content
-            if (!pdfTextExtractionService.isPdf(pdfContent)) {
-                logger.error("Downloaded file is not a valid PDF for request: {}", requestId);
-                return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid PDF file",
-                    "The file downloaded from S3 is not a valid PDF",
-                    httpRequest.getRequestURI(), requestId);
-            }
+            return ResponseEntity.ok(valuationStreamService.stream(loanApplicationId, requestId, path));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Too many progress streams open, rejecting request: {}", requestId);
+            return toEmitterResponse(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service unavailable",
+                "Too many valuation streams open, retry later", path, requestId));
+        }
+    }
 
-            // Step 3: Extract text from PDF
-            logger.info("Step 2: Extracting text from PDF for request: {}", requestId);
-            String extractedText = pdfTextExtractionService.extractText(pdfContent);
+    /**
+     * Processes a batch of valuation requests, streaming one NDJSON line per request as it finishes.
+     * A failed or invalid request produces a line with its error and does not stop the batch.
+     *
+     * @param requests The valuation requests
+     * @param httpRequest The HTTP request for error context
+     * @return NDJSON stream of batch items, or 400 if the batch is empty or too large
+     */
+    // The body type is declared so that Spring MVC streams it; the error is written through the same type
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> processValuationBatch(@RequestBody List<ValuationRequest> requests,
+                                                                       HttpServletRequest httpRequest)
+            throws JsonProcessingException {
+        String path = httpRequest.getRequestURI();
+        if (requests.isEmpty() || requests.size() > valuationBatchService.getMaxItems()) {
+            ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Invalid batch",
+                "A batch must contain between 1 and " + valuationBatchService.getMaxItems() + " requests",
+                path, null);
+            byte[] json = objectMapper.writeValueAsBytes(errorResponse);
+            return errorStatus(errorResponse).body(outputStream -> outputStream.write(json));
+        }
+        logger.info("Processing valuation batch of {} requests", requests.size());
 
-            if (extractedText.trim().isEmpty()) {
-                logger.error("No text content extracted from PDF for request: {}", requestId);
-                return createErrorResponse(HttpStatus.BAD_REQUEST, "Empty PDF content",
-                    "No text content could be extracted from the PDF",
-                    httpRequest.getRequestURI(), requestId);
-            }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            valuationBatchService.process(requests, path, item -> {
+                writer.write(objectMapper.writeValueAsString(item));
+                writer.write('\n');
+                writer.flush();
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 
-            // Step 4: Process with Azure OpenAI
-            logger.info("Step 3: Processing text with Azure OpenAI for request: {}", requestId);
-            ValuationResponse valuationResponse = azureOpenAIService.processValuationText(extractedText, requestId);
+    /**
+     * Queues a property valuation request as an asynchronous job.
+     *
+     * @param request The valuation request containing requestId
+     * @param httpRequest The HTTP request for error context
+     * @return 202 with the queued job and its location, or 503 if the job queue is full
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitValuationJob(@Valid @RequestBody ValuationRequest request,
+                                                HttpServletRequest httpRequest) {
+        String requestId = request.getRequestId();
+        logger.info("Queueing valuation job for request: {} and loan application: {}",
+            requestId, request.getLoanApplicationId());
 
-            logger.info("Successfully processed valuation request: {}", requestId);
-            return ResponseEntity.ok(valuationResponse);
+        try {
+            ValuationJob job = valuationJobService.submit(request.getLoanApplicationId(), requestId,
+                httpRequest.getRequestURI());
+            return ResponseEntity.accepted()
+                .location(URI.create(httpRequest.getRequestURI() + "/" + job.getJobId()))
+                .body(job);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Job queue full, rejecting request: {}", requestId);
+            return createErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service unavailable",
+                "Too many valuation jobs queued, retry later", httpRequest.getRequestURI(), requestId);
+        }
+    }
 
-        } catch (IOException e) {
-            logger.error("Azure Storage error processing request {}: {}", requestId, e.getMessage());
-            return createErrorResponse(HttpStatus.NOT_FOUND, "PDF not found", 
-                e.getMessage(), httpRequest.getRequestURI(), requestId);
-                
-        } catch (PdfTextExtractionService.PdfTextExtractionException e) {
-            logger.error("PDF extraction error processing request {}: {}", requestId, e.getMessage());
-            return createErrorResponse(HttpStatus.BAD_REQUEST, "PDF processing failed", 
-                e.getMessage(), httpRequest.getRequestURI(), requestId);
-                
-        } catch (AzureOpenAIService.AzureOpenAIServiceException e) {
-            logger.error("Azure OpenAI error processing request {}: {}", requestId, e.getMessage());
-            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "AI processing failed", 
-                e.getMessage(), httpRequest.getRequestURI(), requestId);
-                
-        } catch (Exception e) {
-            logger.error("Unexpected error processing request {}: {}", requestId, e.getMessage(), e);
-            return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error", 
-                "An unexpected error occurred while processing the request", 
-                httpRequest.getRequestURI(), requestId);
+    /**
+     * Returns the state of a valuation job: 202 with its status while it is queued or running, 200 with
+     * the valuation response once it succeeded, or its error response if it failed.
+     *
+     * @param jobId The job ID returned on submission
+     * @param httpRequest The HTTP request for error context
+     * @return The job status, valuation response or error
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getValuationJob(@PathVariable String jobId, HttpServletRequest httpRequest) {
+        Optional<ValuationJob> found = valuationJobService.find(jobId);
+        if (found.isEmpty()) {
+            return createErrorResponse(HttpStatus.NOT_FOUND, "Job not found",
+                "No valuation job with id " + jobId, httpRequest.getRequestURI(), null);
         }
+
+        ValuationJob job = found.get();
+        return switch (job.getStatus()) {
+            case SUCCEEDED -> ResponseEntity.ok(job.getResult());
+            case FAILED -> toResponse(job.getError());
+            default -> ResponseEntity.accepted().body(job);
+        };
     }
 
     /**
@@ -137,9 +253,50 @@ public class ValuationController {
 //        }
 //    }
 
+    /**
+     * The configured timeout, shortened to the caller's budget when the header carries a smaller one.
+     * Invalid values are ignored rather than rejected, since the header is only a hint.
+     */
+    private Duration requestTimeout(String header, String requestId) {
+        Duration configured = Duration.ofSeconds(valuationConfig.getTimeoutSeconds());
+        if (header == null || header.isBlank()) {
+            return configured;
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            if (millis > 0 && millis < configured.toMillis()) {
+                return Duration.ofMillis(millis);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring invalid {} header for request {}: {}", REQUEST_TIMEOUT_HEADER, requestId, header);
+        }
+        return configured;
+    }
+
+    private ResponseEntity<ErrorResponse> toResponse(ErrorResponse errorResponse) {
+        return errorStatus(errorResponse).body(errorResponse);
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> toEmitterResponse(ErrorResponse errorResponse) throws IOException {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        emitter.send(errorResponse, MediaType.APPLICATION_JSON);
+        emitter.complete();
+        return errorStatus(errorResponse).body(emitter);
+    }
+
+    // The content type is set explicitly so that clients accepting only text/event-stream still get the error
+    private ResponseEntity.BodyBuilder errorStatus(ErrorResponse errorResponse) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(errorResponse.getStatus())
+            .contentType(MediaType.APPLICATION_JSON);
+        if (errorResponse.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            response.header(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, valuationConfig.getStages().getRetryAfter().toSeconds())));
+        }
+        return response;
+    }
+
     private ResponseEntity<ErrorResponse> createErrorResponse(HttpStatus status, String error,
                                                               String message, String path, String requestId) {
-        ErrorResponse errorResponse = new ErrorResponse(status.value(), error, message, path, requestId);
-        return ResponseEntity.status(status).body(errorResponse);
+        return toResponse(new ErrorResponse(status.value(), error, message, path, requestId));
     }
 }
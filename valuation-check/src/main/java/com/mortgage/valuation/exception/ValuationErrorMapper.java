@@ -0,0 +1,95 @@
+package com.mortgage.valuation.exception;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.ExecutionStage;
+import com.mortgage.valuation.model.ErrorResponse;
+import com.mortgage.valuation.service.AzureOpenAIService;
+import com.mortgage.valuation.service.AzureStorageService;
+import com.mortgage.valuation.service.PdfTextExtractionService;
+import com.mortgage.valuation.service.ValuationPipeline;
+import jakarta.validation.ConstraintViolation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Maps failures of the valuation pipeline to error responses, for both the synchronous endpoint and
+ * failed jobs.
+ */
+@Component
+public class ValuationErrorMapper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationErrorMapper.class);
+
+    /**
+     * Logs the failure and builds the matching error response.
+     *
+     * @param e The failure
+     * @param path The request path
+     * @param requestId The request ID
+     * @return The error response, with its HTTP status
+     */
+    public ErrorResponse toErrorResponse(Exception e, String path, String requestId) {
+        if (e instanceof ValuationPipeline.InvalidReportException invalid) {
+            return error(HttpStatus.BAD_REQUEST, invalid.getError(), e.getMessage(), path, requestId);
+
+        } else if (e instanceof AzureStorageService.ReportTooLargeException) {
+            logger.error("Valuation report too large for request {}: {}", requestId, e.getMessage());
+            return error(HttpStatus.PAYLOAD_TOO_LARGE, "PDF too large", e.getMessage(), path, requestId);
+
+        } else if (e instanceof IOException) {
+            logger.error("Azure Storage error processing request {}: {}", requestId, e.getMessage());
+            return error(HttpStatus.NOT_FOUND, "PDF not found", e.getMessage(), path, requestId);
+
+        } else if (e instanceof PdfTextExtractionService.PdfTextExtractionException) {
+            logger.error("PDF extraction error processing request {}: {}", requestId, e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, "PDF processing failed", e.getMessage(), path, requestId);
+
+        } else if (e instanceof ExecutionStage.StageOverloadedException overloaded) {
+            logger.warn("Shedding request {}: {} stage queue is full", requestId, overloaded.getStage());
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Service unavailable",
+                    "The service is at capacity, retry later", path, requestId);
+
+        } else if (e instanceof Deadline.DeadlineExceededException exceeded) {
+            logger.warn("Abandoning request {}: {}", requestId, e.getMessage());
+            return error(HttpStatus.GATEWAY_TIMEOUT, exceeded.isCancelled() ? "Request cancelled" : "Deadline exceeded",
+                    e.getMessage(), path, requestId);
+
+        } else if (e instanceof AzureOpenAIService.AzureOpenAIServiceException) {
+            logger.error("Azure OpenAI error processing request {}: {}", requestId, e.getMessage());
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "AI processing failed", e.getMessage(), path, requestId);
+        }
+
+        logger.error("Unexpected error processing request {}: {}", requestId, e.getMessage(), e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error",
+                "An unexpected error occurred while processing the request", path, requestId);
+    }
+
+    /**
+     * Builds the 400 response for a request that failed bean validation outside of request binding.
+     *
+     * @param violations The constraint violations, at least one
+     * @param path The request path
+     * @param requestId The request ID, if known
+     * @return The validation error response
+     */
+    public ErrorResponse toValidationErrorResponse(Set<? extends ConstraintViolation<?>> violations, String path,
+                                                   String requestId) {
+        ErrorResponse errorResponse = error(HttpStatus.BAD_REQUEST, "Validation Failed", "Request validation failed",
+                path, requestId);
+        errorResponse.setDetails(violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList());
+        logger.warn("Validation error: {}", errorResponse.getDetails());
+        return errorResponse;
+    }
+
+    private static ErrorResponse error(HttpStatus status, String error, String message, String path, String requestId) {
+        return new ErrorResponse(status.value(), error, message, path, requestId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mortgage.valuation.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text extracted from a valuation report, with the per-page text kept alongside the full content.
+ */
+public class ExtractionResult {
+
+    @JsonProperty("modelId")
+    private String modelId;
+
+    @JsonProperty("content")
+    private String content;
+
+    @JsonProperty("pages")
+    private List<String> pages = new ArrayList<>();
+
+    public ExtractionResult() {}
+
+    public ExtractionResult(String modelId, String content, List<String> pages) {
+        this.modelId = modelId;
+        this.content = content;
+        this.pages = pages;
+    }
+
+    public String getModelId() {
+        return modelId;
+    }
+
+    public void setModelId(String modelId) {
+        this.modelId = modelId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public List<String> getPages() {
+        return pages;
+    }
+
+    public void setPages(List<String> pages) {
+        this.pages = pages;
+    }
+}
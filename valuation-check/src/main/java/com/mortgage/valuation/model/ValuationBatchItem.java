@@ -0,0 +1,102 @@
+package com.mortgage.valuation.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of one request in a batch, written as one NDJSON line as soon as it finishes. Lines arrive in
+ * completion order; {@code index} is the request's position in the submitted batch.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValuationBatchItem {
+
+    public enum Status {
+        SUCCEEDED, FAILED
+    }
+
+    @JsonProperty("index")
+    private int index;
+
+    @JsonProperty("requestId")
+    private String requestId;
+
+    @JsonProperty("loanApplicationId")
+    private String loanApplicationId;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("result")
+    private ValuationResponse result;
+
+    @JsonProperty("error")
+    private ErrorResponse error;
+
+    public ValuationBatchItem() {
+    }
+
+    public ValuationBatchItem(int index, ValuationRequest request, ValuationResponse result) {
+        this(index, request, Status.SUCCEEDED);
+        this.result = result;
+    }
+
+    public ValuationBatchItem(int index, ValuationRequest request, ErrorResponse error) {
+        this(index, request, Status.FAILED);
+        this.error = error;
+    }
+
+    private ValuationBatchItem(int index, ValuationRequest request, Status status) {
+        this.index = index;
+        this.requestId = request.getRequestId();
+        this.loanApplicationId = request.getLoanApplicationId();
+        this.status = status;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getLoanApplicationId() {
+        return loanApplicationId;
+    }
+
+    public void setLoanApplicationId(String loanApplicationId) {
+        this.loanApplicationId = loanApplicationId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public ValuationResponse getResult() {
+        return result;
+    }
+
+    public void setResult(ValuationResponse result) {
+        this.result = result;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
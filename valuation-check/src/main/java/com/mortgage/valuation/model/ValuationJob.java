@@ -0,0 +1,133 @@
+package com.mortgage.valuation.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+
+/**
+ * State of an asynchronous valuation job, as kept in the job store and returned while it runs.
+ *
+ * The worker updates a job while readers poll it, so the fields are volatile and {@code status} is set
+ * last: a reader that sees a finished status also sees the result or error and the completion time.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValuationJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    @JsonProperty("jobId")
+    private volatile String jobId;
+
+    @JsonProperty("requestId")
+    private volatile String requestId;
+
+    @JsonProperty("loanApplicationId")
+    private volatile String loanApplicationId;
+
+    @JsonProperty("status")
+    private volatile Status status;
+
+    @JsonProperty("submittedAt")
+    private volatile Instant submittedAt;
+
+    @JsonProperty("startedAt")
+    private volatile Instant startedAt;
+
+    @JsonProperty("completedAt")
+    private volatile Instant completedAt;
+
+    @JsonProperty("result")
+    private volatile ValuationResponse result;
+
+    @JsonProperty("error")
+    private volatile ErrorResponse error;
+
+    public ValuationJob() {
+    }
+
+    public ValuationJob(String jobId, String requestId, String loanApplicationId) {
+        this.jobId = jobId;
+        this.requestId = requestId;
+        this.loanApplicationId = loanApplicationId;
+        this.status = Status.QUEUED;
+        this.submittedAt = Instant.now();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+
+    public String getLoanApplicationId() {
+        return loanApplicationId;
+    }
+
+    public void setLoanApplicationId(String loanApplicationId) {
+        this.loanApplicationId = loanApplicationId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Instant submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public ValuationResponse getResult() {
+        return result;
+    }
+
+    public void setResult(ValuationResponse result) {
+        this.result = result;
+    }
+
+    public ErrorResponse getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponse error) {
+        this.error = error;
+    }
+}
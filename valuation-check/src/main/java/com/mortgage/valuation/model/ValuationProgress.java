@@ -0,0 +1,23 @@
+package com.mortgage.valuation.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Stage event of a streamed valuation: {@code downloaded} with the report size, {@code text-extracted}
+ * with the reduced text length, then {@code valuation-started}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ValuationProgress(String stage, Long bytes, Integer characters) {
+
+    public static ValuationProgress downloaded(long bytes) {
+        return new ValuationProgress("downloaded", bytes, null);
+    }
+
+    public static ValuationProgress textExtracted(int characters) {
+        return new ValuationProgress("text-extracted", null, characters);
+    }
+
+    public static ValuationProgress valuationStarted() {
+        return new ValuationProgress("valuation-started", null, null);
+    }
+}
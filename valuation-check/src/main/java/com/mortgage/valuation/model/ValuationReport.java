@@ -0,0 +1,124 @@
+package com.mortgage.valuation.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Read-only handle to a downloaded valuation report.
+ *
+ * The content is either a memory-mapped file (kept off the Java heap) or, in heap download mode,
+ * a wrapped byte array. Callers should close the handle once they no longer need the content so
+ * that temporary files are removed.
+ */
+public final class ValuationReport implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationReport.class);
+
+    private final String blobName;
+    private final ByteBuffer content;
+    private final Path file;
+    private final boolean deleteOnClose;
+    private volatile String contentHash;
+
+    private ValuationReport(String blobName, ByteBuffer content, Path file, boolean deleteOnClose) {
+        this.blobName = blobName;
+        this.content = content;
+        this.file = file;
+        this.deleteOnClose = deleteOnClose;
+    }
+
+    /**
+     * Maps a file read-only into memory.
+     *
+     * @param blobName The blob the file was downloaded from
+     * @param file The local file holding the report
+     * @param deleteOnClose Whether the file is temporary and should be deleted on {@link #close()}
+     * @return The report handle
+     * @throws IOException if the file cannot be mapped
+     */
+    public static ValuationReport mapped(String blobName, Path file, boolean deleteOnClose) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed (and after the file is moved or unlinked)
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ValuationReport(blobName, buffer, file, deleteOnClose);
+        }
+    }
+
+    /**
+     * Wraps report content already held on the heap.
+     */
+    public static ValuationReport ofBytes(String blobName, byte[] content) {
+        return new ValuationReport(blobName, ByteBuffer.wrap(content).asReadOnlyBuffer(), null, false);
+    }
+
+    public String getBlobName() {
+        return blobName;
+    }
+
+    /**
+     * Returns an independent read-only view of the content, positioned at the start.
+     */
+    public ByteBuffer getContent() {
+        return content.asReadOnlyBuffer();
+    }
+
+    public long getSize() {
+        return content.capacity();
+    }
+
+    /**
+     * Returns the backing file when the report is memory-mapped.
+     */
+    public Optional<Path> getFile() {
+        return Optional.ofNullable(file);
+    }
+
+    /**
+     * Returns the hex SHA-256 of the content, computed directly over the buffer and memoised.
+     */
+    public String getContentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(getContent());
+                hash = HexFormat.of().formatHex(digest.digest());
+                contentHash = hash;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Copies the content onto the heap. Only use at boundaries that require a byte array.
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[content.capacity()];
+        getContent().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        if (deleteOnClose && file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete temporary report file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
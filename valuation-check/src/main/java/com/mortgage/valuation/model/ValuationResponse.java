@@ -32,6 +32,62 @@ public class ValuationResponse {
     @JsonProperty("answersFormVersions")
     private List<String> answersFormVersions;
 
+    public String getCreatedUtc() {
+        return createdUtc;
+    }
+
+    public void setCreatedUtc(String createdUtc) {
+        this.createdUtc = createdUtc;
+    }
+
+    public String getLastUpdatedUtc() {
+        return lastUpdatedUtc;
+    }
+
+    public void setLastUpdatedUtc(String lastUpdatedUtc) {
+        this.lastUpdatedUtc = lastUpdatedUtc;
+    }
+
+    public String getFormCode() {
+        return formCode;
+    }
+
+    public void setFormCode(String formCode) {
+        this.formCode = formCode;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public List<Answer> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<Answer> answers) {
+        this.answers = answers;
+    }
+
+    public List<String> getAnswersFormVersions() {
+        return answersFormVersions;
+    }
+
+    public void setAnswersFormVersions(List<String> answersFormVersions) {
+        this.answersFormVersions = answersFormVersions;
+    }
+
     public static class Answer {
 
         @JsonProperty("questionId")
@@ -45,5 +101,37 @@ public class ValuationResponse {
 
         @JsonProperty("questionLinkOverridden")
         private boolean questionLinkOverridden;
+
+        public String getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(String questionId) {
+            this.questionId = questionId;
+        }
+
+        public String getAnswerType() {
+            return answerType;
+        }
+
+        public void setAnswerType(String answerType) {
+            this.answerType = answerType;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public void setValue(Object value) {
+            this.value = value;
+        }
+
+        public boolean isQuestionLinkOverridden() {
+            return questionLinkOverridden;
+        }
+
+        public void setQuestionLinkOverridden(boolean questionLinkOverridden) {
+            this.questionLinkOverridden = questionLinkOverridden;
+        }
     }
 }
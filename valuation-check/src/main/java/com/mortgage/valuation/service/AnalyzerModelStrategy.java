@@ -0,0 +1,34 @@
+package com.mortgage.valuation.service;
+
+/**
+ * Chooses the Document Intelligence model used to analyze a report.
+ *
+ * The default is {@link SignalBasedAnalyzerModelStrategy}; declare a {@code @Primary} bean of this type
+ * to replace the policy.
+ */
+public interface AnalyzerModelStrategy {
+
+    /**
+     * @param signals Cheap facts about the document, gathered before any remote call
+     * @return The id of the model to analyze the document with
+     */
+    String selectModel(DocumentSignals signals);
+
+    /**
+     * Facts about a report that are known locally.
+     *
+     * @param pageCount Pages in the document, or -1 if it could not be parsed locally
+     * @param remotePageCount Pages that need the remote analyzer, or -1 if unknown
+     * @param textLayerPageCount Pages with a usable embedded text layer
+     * @param fileSizeBytes Size of the PDF
+     */
+    record DocumentSignals(int pageCount, int remotePageCount, int textLayerPageCount, long fileSizeBytes) {
+
+        /**
+         * Share of pages that carry a usable text layer, or 0 when the page count is unknown.
+         */
+        public double textLayerFraction() {
+            return pageCount > 0 ? (double) textLayerPageCount / pageCount : 0.0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.model.ValuationResponse;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.List;
+
+/**
+ * Checks LLM answers against the VR4B mapping table and the value rules of the system prompt.
+ *
+ * Deviations that can be corrected without guessing are normalized in place: a wrong answerType is
+ * replaced by the table's, whole numbers for decimal questions become doubles (serialized with ".0"),
+ * numeric strings become numbers and a single option string becomes a one-element array. Anything
+ * else, such as an unparseable date, is reported as invalid so the question can be asked again.
+ */
+@Component
+public class AnswerValidator {
+
+    private static final DateTimeFormatter ANSWER_DATE =
+            DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    /**
+     * Validates an answer, normalizing it where that is lossless. Validating an answer again is harmless.
+     *
+     * @param answer The answer; its answerType and value may be updated
+     * @return The reason the answer is invalid, or null if it is valid
+     */
+    public String validate(ValuationResponse.Answer answer) {
+        if (answer.getQuestionId() == null) {
+            return "missing questionId";
+        }
+        Vr4bMappingTable.Question question = Vr4bMappingTable.find(answer.getQuestionId()).orElse(null);
+        if (question == null) {
+            return "unknown questionId";
+        }
+        if (!question.answerType().equals(answer.getAnswerType())) {
+            answer.setAnswerType(question.answerType());
+        }
+
+        Object value = answer.getValue();
+        if (value == null) {
+            return null;
+        }
+        return switch (question.answerType()) {
+            case "text" -> value instanceof String || value instanceof Number ? normalizeText(answer) : "expected a string";
+            case "decimal" -> normalizeDecimal(answer);
+            case "number" -> normalizeNumber(answer);
+            case "date" -> value instanceof String date && isDate(date) ? null : "expected a DD/MM/YYYY date";
+            case "options" -> normalizeOptions(answer);
+            case "boolean" -> value instanceof Boolean ? null : "expected true or false";
+            case "photos" -> value instanceof List ? null : "expected an array";
+            default -> null;
+        };
+    }
+
+    private static String normalizeText(ValuationResponse.Answer answer) {
+        if (answer.getValue() instanceof Number number) {
+            answer.setValue(number.toString());
+        }
+        return null;
+    }
+
+    private static String normalizeDecimal(ValuationResponse.Answer answer) {
+        BigDecimal number = toNumber(answer.getValue());
+        if (number == null) {
+            return "expected a decimal number";
+        }
+        answer.setValue(number.doubleValue());
+        return null;
+    }
+
+    private static String normalizeNumber(ValuationResponse.Answer answer) {
+        BigDecimal number = toNumber(answer.getValue());
+        if (number == null) {
+            return "expected a number";
+        }
+        try {
+            answer.setValue(number.longValueExact());
+        } catch (ArithmeticException e) {
+            answer.setValue(number.doubleValue());
+        }
+        return null;
+    }
+
+    private static String normalizeOptions(ValuationResponse.Answer answer) {
+        Object value = answer.getValue();
+        if (value instanceof String option) {
+            answer.setValue(option.isBlank() ? null : List.of(option));
+            return null;
+        }
+        if (value instanceof List<?> options) {
+            if (options.isEmpty()) {
+                // The prompt asks for null instead of an empty array
+                answer.setValue(null);
+                return null;
+            }
+            return options.stream().allMatch(String.class::isInstance) ? null : "expected an array of strings";
+        }
+        return "expected an array of strings";
+    }
+
+    /**
+     * Reads a number, or a string holding a plain number with optional thousands separators or a pound sign.
+     */
+    private static BigDecimal toNumber(Object value) {
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        if (value instanceof String text) {
+            String plain = text.replace(",", "").replace("\u00a3", "").trim();
+            try {
+                return plain.isEmpty() ? null : new BigDecimal(plain);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDate(String value) {
+        try {
+            LocalDate.parse(value, ANSWER_DATE);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -1,18 +1,52 @@
 package com.mortgage.valuation.service;
 
-import com.azure.ai.openai.OpenAIClient;
 import com.azure.ai.openai.models.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mortgage.valuation.cache.LocalFileCache;
+import com.mortgage.valuation.concurrent.AsyncConcurrencyLimiter;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.WorkerThreads;
 import com.mortgage.valuation.config.AzureOpenAIConfig;
 import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Service for processing extracted text with Azure OpenAI to generate structured valuation data.
@@ -22,15 +56,71 @@ public class AzureOpenAIService {
 
     private static final Logger logger = LoggerFactory.getLogger(AzureOpenAIService.class);
 
-    private final OpenAIClient openAIClient;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Rough average for English text, used to estimate prompt tokens for the rate limiter
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final OpenAIDeploymentPool deploymentPool;
     private final AzureOpenAIConfig config;
     private final ObjectMapper objectMapper;
+    private final Timer timeToFirstAnswer;
+    private final Timer completionTime;
+    private final Counter fanOutConflicts;
+    private final Counter llmSkipped;
+    private final RuleBasedAnswerExtractor ruleBasedAnswerExtractor;
+    private final AnswerValidator answerValidator;
+    private final LocalFileCache responseCache;
+    private final ExecutorService fanOutExecutor;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public AzureOpenAIService(OpenAIClient openAIClient, AzureOpenAIConfig config) {
-        this.openAIClient = openAIClient;
+    public AzureOpenAIService(OpenAIDeploymentPool deploymentPool, AzureOpenAIConfig config,
+                              RuleBasedAnswerExtractor ruleBasedAnswerExtractor, AnswerValidator answerValidator,
+                              Environment environment, MeterRegistry meterRegistry) {
+        this.deploymentPool = deploymentPool;
         this.config = config;
+        this.ruleBasedAnswerExtractor = ruleBasedAnswerExtractor;
+        this.answerValidator = answerValidator;
+        this.meterRegistry = meterRegistry;
         this.objectMapper = new ObjectMapper();
+        this.timeToFirstAnswer = Timer.builder("valuation.llm.first.answer")
+                .description("Time from sending a streamed completion request to the first parsed answer")
+                .register(meterRegistry);
+        this.completionTime = Timer.builder("valuation.llm.completion")
+                .description("Time to receive and parse a complete valuation response")
+                .register(meterRegistry);
+        this.fanOutConflicts = Counter.builder("valuation.llm.fanout.conflicts")
+                .description("Answers returned by more than one question group")
+                .register(meterRegistry);
+        this.llmSkipped = Counter.builder("valuation.llm.skipped")
+                .description("Valuations fully answered by the rule-based extractor without an LLM call")
+                .register(meterRegistry);
+
+        AzureOpenAIConfig.Cache cacheConfig = config.getCache();
+        if (cacheConfig.isEnabled()) {
+            // One subdirectory per prompt template version; entries for older templates are dropped at startup
+            String templateVersion = promptVersion(Vr4bMappingTable.questions()).substring(0, 16);
+            Path baseDirectory = Paths.get(cacheConfig.getDirectory());
+            purgeStalePromptVersions(baseDirectory, templateVersion);
+            this.responseCache = new LocalFileCache("llm-responses", baseDirectory.resolve(templateVersion),
+                    cacheConfig.getMaxSizeMb() * 1024 * 1024, cacheConfig.getTtl(), meterRegistry);
+        } else {
+            this.responseCache = null;
+        }
+
+        // Shared by all requests; each request caps its own groups, and the deployment pool caps the calls
+        this.fanOutExecutor = config.getFanOut().isEnabled()
+                ? Executors.newCachedThreadPool(
+                        WorkerThreads.factory("llm-fan-out-", Threading.VIRTUAL.isActive(environment)))
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -42,37 +132,639 @@ public class AzureOpenAIService {
      * @throws AzureOpenAIServiceException if processing fails
      */
     public ValuationResponse processValuationText(String extractedText, String requestId) throws AzureOpenAIServiceException {
+        return processValuationText(extractedText, requestId, answer -> { });
+    }
+
+    /**
+     * Processes extracted text and reports each answer as soon as it has been generated.
+     *
+     * In streaming mode the listener is called while the completion is still being generated; otherwise
+     * it is called for every answer once the full response has been parsed. In fan-out mode the question
+     * groups complete concurrently, but the listener is never called concurrently. Answers resolved by the
+     * {@link RuleBasedAnswerExtractor} are reported first, and the model is only asked for the rest.
+     *
+     * @param extractedText The text extracted from the PDF
+     * @param requestId The request ID for context
+     * @param answerListener Receives each answer as it becomes available
+     * @return Structured valuation response
+     * @throws AzureOpenAIServiceException if processing fails
+     */
+    public ValuationResponse processValuationText(String extractedText, String requestId,
+                                                  Consumer<ValuationResponse.Answer> answerListener)
+            throws AzureOpenAIServiceException {
+        try {
+            return processValuationText(extractedText, requestId, answerListener, Deadline.none());
+        } catch (Deadline.DeadlineExceededException e) {
+            throw new AzureOpenAIServiceException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Processes extracted text within a deadline. Completions still running when it expires are
+     * interrupted, and no follow-up completions are started.
+     *
+     * @param extractedText The text extracted from the PDF
+     * @param requestId The request ID for context
+     * @param answerListener Receives each answer as it becomes available
+     * @param deadline The request's deadline
+     * @return Structured valuation response
+     * @throws AzureOpenAIServiceException if processing fails
+     * @throws Deadline.DeadlineExceededException if the deadline expired first
+     */
+    public ValuationResponse processValuationText(String extractedText, String requestId,
+                                                  Consumer<ValuationResponse.Answer> answerListener,
+                                                  Deadline deadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
         logger.info("Processing valuation text with Azure OpenAI for request: {}", requestId);
 
         try {
-            String prompt = buildValuationPrompt(extractedText, requestId);
-            
-            List<ChatRequestMessage> messages = new ArrayList<>();
-            messages.add(new ChatRequestSystemMessage(getSystemPrompt()));
-            messages.add(new ChatRequestUserMessage(prompt));
+            long started = System.nanoTime();
+            Map<String, ValuationResponse.Answer> localAnswers =
+                    ruleBasedAnswerExtractor.extract(extractedText, requestId);
+            localAnswers.values().forEach(answerListener);
 
-            ChatCompletionsOptions options = new ChatCompletionsOptions(messages)
-                    .setMaxTokens(config.getMaxTokens())
-                    .setTemperature(config.getTemperature())
-                    .setTopP(0.95);
+            List<Vr4bMappingTable.Question> remaining = Vr4bMappingTable.questions().stream()
+                    .filter(question -> !localAnswers.containsKey(question.questionId()))
+                    .toList();
+            Consumer<ValuationResponse.Answer> remoteListener = answer -> {
+                if (!localAnswers.containsKey(answer.getQuestionId())) {
+                    answerListener.accept(answer);
+                }
+            };
 
-            ChatCompletions chatCompletions = openAIClient.getChatCompletions(config.getDeploymentName(), options);
-            
-            String responseContent = chatCompletions.getChoices().get(0).getMessage().getContent();
-            logger.info("Received response from Azure OpenAI: {} characters", responseContent.length());
+            ValuationResponse valuationResponse;
+            if (remaining.isEmpty()) {
+                logger.info("All questions resolved locally for request {}, skipping Azure OpenAI", requestId);
+                llmSkipped.increment();
+                valuationResponse = newEnvelope();
+            } else if (config.getFanOut().isEnabled()) {
+                valuationResponse = completeFannedOut(remaining, extractedText, requestId, remoteListener, deadline);
+            } else {
+                valuationResponse = completeValuation(remaining, extractedText, requestId, remoteListener, deadline);
+            }
+            valuationResponse = withLocalAnswers(valuationResponse, localAnswers);
+            completionTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
 
-            // Parse the JSON response
-            ValuationResponse valuationResponse = parseValuationResponse(responseContent, requestId);
-            
             logger.info("Successfully processed valuation for request: {}", requestId);
             return valuationResponse;
 
+        } catch (Deadline.DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
+            if (deadline.isExpired()) {
+                throw deadline.exceeded("LLM completion");
+            }
             logger.error("Error processing valuation text with Azure OpenAI: {}", e.getMessage(), e);
             throw new AzureOpenAIServiceException("Failed to process valuation with Azure OpenAI: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Runs one completion for the given questions of the mapping table, or answers it from the response
+     * cache when the same text was already processed with the same prompt and deployment.
+     */
+    private ValuationResponse completeValuation(List<Vr4bMappingTable.Question> questions, String extractedText,
+                                                String requestId, Consumer<ValuationResponse.Answer> answerListener,
+                                                Deadline deadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        String cacheKey = responseCache != null ? responseCacheKey(questions, extractedText) : null;
+        if (cacheKey != null) {
+            Optional<ValuationResponse> cached = readCachedResponse(cacheKey);
+            if (cached.isPresent()) {
+                logger.info("Using cached Azure OpenAI response for request {}", requestId);
+                ValuationResponse valuationResponse = cached.get();
+                String now = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
+                valuationResponse.setCreatedUtc(now);
+                valuationResponse.setLastUpdatedUtc(now);
+                if (valuationResponse.getAnswers() != null) {
+                    valuationResponse.getAnswers().forEach(answerListener);
+                }
+                return valuationResponse;
+            }
+        }
+
+        // Invalid answers are held back from the listener until they are repaired
+        Consumer<ValuationResponse.Answer> validListener = answer -> {
+            if (answerValidator.validate(answer) == null) {
+                answerListener.accept(answer);
+            }
+        };
+        ValuationResponse valuationResponse =
+                requestCompletion(questions, extractedText, requestId, validListener, null, deadline);
+        valuationResponse =
+                repairInvalidAnswers(valuationResponse, questions, extractedText, requestId, validListener, deadline);
+        if (cacheKey != null) {
+            writeCachedResponse(cacheKey, valuationResponse);
+        }
+        return valuationResponse;
+    }
+
+    /**
+     * Validates the answers and asks again, in a small follow-up completion, only for the questions whose
+     * answers are invalid. Answers still invalid after the configured attempts are set to null.
+     */
+    private ValuationResponse repairInvalidAnswers(ValuationResponse response, List<Vr4bMappingTable.Question> questions,
+                                                   String extractedText, String requestId,
+                                                   Consumer<ValuationResponse.Answer> answerListener,
+                                                   Deadline deadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        Map<String, InvalidAnswer> invalid = removeInvalidAnswers(response, questions, requestId);
+        if (invalid.isEmpty()) {
+            return response;
+        }
+
+        Map<String, ValuationResponse.Answer> answers = new LinkedHashMap<>();
+        response.getAnswers().forEach(answer -> answers.putIfAbsent(answer.getQuestionId(), answer));
+        for (int attempt = 1; config.getRepair().isEnabled() && attempt <= config.getRepair().getMaxAttempts()
+                && !invalid.isEmpty(); attempt++) {
+            List<Vr4bMappingTable.Question> reask = questions.stream()
+                    .filter(question -> invalid.containsKey(question.questionId()))
+                    .toList();
+            logger.info("Re-asking {} questions with invalid answers for request {} (attempt {}): {}",
+                    reask.size(), requestId, attempt, invalid.keySet());
+            Set<String> reaskIds = Set.copyOf(invalid.keySet());
+            ValuationResponse repaired = requestCompletion(reask, extractedText, requestId, answer -> {
+                if (reaskIds.contains(answer.getQuestionId())) {
+                    answerListener.accept(answer);
+                }
+            }, repairInstructions(invalid.values()), deadline);
+            Map<String, InvalidAnswer> stillInvalid = removeInvalidAnswers(repaired, reask, requestId);
+            for (ValuationResponse.Answer answer : repaired.getAnswers()) {
+                if (invalid.remove(answer.getQuestionId()) != null) {
+                    answers.put(answer.getQuestionId(), answer);
+                }
+            }
+            // Questions the follow-up left out stay unanswered, like any other missing answer
+            invalid.clear();
+            invalid.putAll(stillInvalid);
+            Counter.builder("valuation.llm.repairs").tag("outcome", invalid.isEmpty() ? "repaired" : "invalid")
+                    .description("Follow-up completions for invalid answers").register(meterRegistry).increment();
+        }
+
+        for (InvalidAnswer unrepaired : invalid.values()) {
+            logger.warn("Answer for {} is still invalid for request {} ({}), setting it to null",
+                    unrepaired.answer().getQuestionId(), requestId, unrepaired.reason());
+            ValuationResponse.Answer answer = unrepaired.answer();
+            answer.setValue(null);
+            answers.put(answer.getQuestionId(), answer);
+            answerListener.accept(answer);
+        }
+
+        List<ValuationResponse.Answer> ordered = new ArrayList<>(answers.values());
+        ordered.sort(Comparator.comparingInt(answer -> Vr4bMappingTable.indexOf(answer.getQuestionId())));
+        response.setAnswers(ordered);
+        return response;
+    }
+
+    /**
+     * Removes invalid answers, and answers to questions that were not asked, from the response.
+     *
+     * @return The invalid answers to asked questions, by question id
+     */
+    private Map<String, InvalidAnswer> removeInvalidAnswers(ValuationResponse response,
+                                                            List<Vr4bMappingTable.Question> questions,
+                                                            String requestId) {
+        Map<String, InvalidAnswer> invalid = new LinkedHashMap<>();
+        if (response.getAnswers() == null) {
+            response.setAnswers(new ArrayList<>());
+            return invalid;
+        }
+        Set<String> asked = new HashSet<>();
+        questions.forEach(question -> asked.add(question.questionId()));
+
+        List<ValuationResponse.Answer> valid = new ArrayList<>();
+        for (ValuationResponse.Answer answer : response.getAnswers()) {
+            String reason = answerValidator.validate(answer);
+            if (reason == null && asked.contains(answer.getQuestionId())) {
+                valid.add(answer);
+            } else if (reason != null && asked.contains(answer.getQuestionId())) {
+                logger.info("Invalid answer for {} in request {}: {} ({})",
+                        answer.getQuestionId(), requestId, answer.getValue(), reason);
+                Counter.builder("valuation.answers.invalid").tag("questionId", answer.getQuestionId())
+                        .description("LLM answers that failed validation").register(meterRegistry).increment();
+                invalid.putIfAbsent(answer.getQuestionId(), new InvalidAnswer(answer, reason));
+            } else {
+                logger.debug("Dropping answer for unexpected question {} in request {}", answer.getQuestionId(), requestId);
+            }
+        }
+        response.setAnswers(valid);
+        return invalid;
+    }
+
+    private String repairInstructions(Collection<InvalidAnswer> invalid) {
+        StringBuilder instructions = new StringBuilder("""
+
+                CORRECTIONS:
+                Your previous answers to the questions below broke the value rules. Answer ONLY these questions,
+                following the VALUE RULES of the system prompt exactly:
+                """);
+        for (InvalidAnswer answer : invalid) {
+            String previous;
+            try {
+                previous = objectMapper.writeValueAsString(answer.answer().getValue());
+            } catch (JsonProcessingException e) {
+                previous = String.valueOf(answer.answer().getValue());
+            }
+            instructions.append("- ").append(answer.answer().getQuestionId()).append(": previous value ")
+                    .append(previous).append(" (").append(answer.reason()).append(")\n");
+        }
+        return instructions.toString();
+    }
+
+    private ValuationResponse requestCompletion(List<Vr4bMappingTable.Question> questions, String extractedText,
+                                                String requestId, Consumer<ValuationResponse.Answer> answerListener,
+                                                String repairInstructions, Deadline deadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        String prompt = buildValuationPrompt(extractedText, requestId);
+        if (repairInstructions != null) {
+            prompt += repairInstructions;
+        }
+        String systemPrompt = getSystemPrompt(questions);
+
+        List<ChatRequestMessage> messages = new ArrayList<>();
+        messages.add(new ChatRequestSystemMessage(systemPrompt));
+        messages.add(new ChatRequestUserMessage(prompt));
+
+        ChatCompletionsOptions options = new ChatCompletionsOptions(messages)
+                .setMaxTokens(config.getMaxTokens())
+                .setTemperature(config.getTemperature())
+                .setTopP(0.95);
+
+        long estimatedTokens = (systemPrompt.length() + prompt.length()) / CHARS_PER_TOKEN + config.getMaxTokens();
+        // Failover and hedged attempts replay the completion; each answer is emitted once, by the first attempt
+        Set<String> emitted = new HashSet<>();
+        ReentrantLock emitLock = new ReentrantLock();
+        Consumer<ValuationResponse.Answer> emitOnce = answer -> {
+            emitLock.lock();
+            try {
+                if (emitted.add(String.valueOf(answer.getQuestionId()))) {
+                    answerListener.accept(answer);
+                }
+            } finally {
+                emitLock.unlock();
+            }
+        };
+        return deploymentPool.execute(estimatedTokens, requestId, deadline, deployment -> {
+            if (config.isStreaming()) {
+                return streamValuationResponse(deployment, options, requestId, emitOnce, System.nanoTime());
+            }
+            return getValuationResponse(deployment, options, requestId, emitOnce);
+        });
+    }
+
+    private ValuationResponse getValuationResponse(OpenAIDeploymentPool.PooledDeployment deployment,
+                                                   ChatCompletionsOptions options, String requestId,
+                                                   Consumer<ValuationResponse.Answer> answerListener)
+            throws AzureOpenAIServiceException {
+        ChatCompletions chatCompletions = deployment.getClient().getChatCompletions(deployment.getDeploymentName(), options);
+
+        String responseContent = chatCompletions.getChoices().get(0).getMessage().getContent();
+        logger.info("Received response from Azure OpenAI: {} characters", responseContent.length());
+
+        // Parse the JSON response
+        ValuationResponse valuationResponse = parseValuationResponse(responseContent, requestId);
+        if (valuationResponse.getAnswers() != null) {
+            valuationResponse.getAnswers().forEach(answerListener);
+        }
+        return valuationResponse;
+    }
+
+    /**
+     * Splits the mapping table into question groups, completes them concurrently against the same
+     * text and merges the answers. At most {@code max-concurrency-per-request} groups of one request
+     * run at a time. If any group fails, the whole request fails at once: the other groups' completions
+     * are cancelled and their answers are no longer reported.
+     */
+    private ValuationResponse completeFannedOut(List<Vr4bMappingTable.Question> questionsToAsk, String extractedText,
+                                                String requestId, Consumer<ValuationResponse.Answer> answerListener,
+                                                Deadline deadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        Map<String, List<Vr4bMappingTable.Question>> groups = new LinkedHashMap<>();
+        Vr4bMappingTable.groups(config.getFanOut().getGroups()).forEach((group, questions) -> {
+            List<Vr4bMappingTable.Question> asked = questions.stream().filter(questionsToAsk::contains).toList();
+            if (!asked.isEmpty()) {
+                groups.put(group, asked);
+            }
+        });
+        logger.info("Fanning out request {} across {} question groups: {}", requestId, groups.size(), groups.keySet());
+
+        // Cancelled when a group fails, which stops the other groups' completions, queued or in flight
+        Deadline groupDeadline = deadline.child();
+        try {
+            return completeGroups(groups, extractedText, requestId, answerListener, groupDeadline);
+        } finally {
+            groupDeadline.close();
+        }
+    }
+
+    private ValuationResponse completeGroups(Map<String, List<Vr4bMappingTable.Question>> groups, String extractedText,
+                                             String requestId, Consumer<ValuationResponse.Answer> answerListener,
+                                             Deadline groupDeadline)
+            throws AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        Map<String, CompletableFuture<ValuationResponse>> completions = new LinkedHashMap<>();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        AsyncConcurrencyLimiter requestLimiter =
+                new AsyncConcurrencyLimiter(config.getFanOut().getMaxConcurrencyPerRequest());
+        // Listeners may block (e.g. writing to a client), so they are serialized with a lock, not a monitor
+        ReentrantLock listenerLock = new ReentrantLock();
+        groups.forEach((group, questions) -> {
+            Set<String> questionIds = new HashSet<>();
+            questions.forEach(question -> questionIds.add(question.questionId()));
+            // Only answers a group owns are reported early; the merge resolves the rest
+            Consumer<ValuationResponse.Answer> groupListener = answer -> {
+                if (questionIds.contains(answer.getQuestionId())) {
+                    listenerLock.lock();
+                    try {
+                        // Nothing more is reported once the request has failed
+                        if (!groupDeadline.isExpired()) {
+                            answerListener.accept(answer);
+                        }
+                    } finally {
+                        listenerLock.unlock();
+                    }
+                }
+            };
+            CompletableFuture<ValuationResponse> completion = requestLimiter.submit(() ->
+                    CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return completeValuation(questions, extractedText, requestId, groupListener,
+                                    groupDeadline);
+                        } catch (AzureOpenAIServiceException | Deadline.DeadlineExceededException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, fanOutExecutor), groupDeadline, "LLM completion");
+            completion.whenComplete((response, failure) -> {
+                if (failure != null && firstFailure.compareAndSet(null, failure)) {
+                    groupDeadline.cancel();
+                }
+            });
+            completions.put(group, completion);
+        });
+
+        try {
+            CompletableFuture.allOf(completions.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            // The other groups failed only because the first failure cancelled them
+            Throwable failure = firstFailure.get() != null ? firstFailure.get() : e;
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            if (cause instanceof Deadline.DeadlineExceededException exceeded) {
+                throw exceeded;
+            }
+            throw new AzureOpenAIServiceException("Question group completion failed: " + cause.getMessage(), cause);
+        }
+
+        Map<String, ValuationResponse> responses = new LinkedHashMap<>();
+        completions.forEach((group, completion) -> responses.put(group, completion.join()));
+        return mergeGroupResponses(groups, responses);
+    }
+
+    /**
+     * Merges group responses into one response with answers in mapping table order.
+     *
+     * When more than one group answers a question, the group that owns it wins; among other groups the
+     * first non-null value is kept. Asked questions no group answered are added with a null value, and
+     * answers for questions outside the table follow in the order they were first seen.
+     */
+    private ValuationResponse mergeGroupResponses(Map<String, List<Vr4bMappingTable.Question>> groups,
+                                                  Map<String, ValuationResponse> responses) {
+        Map<String, String> owners = new HashMap<>();
+        groups.forEach((group, questions) -> questions.forEach(question -> owners.put(question.questionId(), group)));
+
+        Map<String, ValuationResponse.Answer> answers = new LinkedHashMap<>();
+        Set<String> ownerAnswered = new HashSet<>();
+        ValuationResponse merged = null;
+        for (Map.Entry<String, ValuationResponse> entry : responses.entrySet()) {
+            String group = entry.getKey();
+            ValuationResponse response = entry.getValue();
+            if (merged == null) {
+                merged = response;
+            }
+            if (response.getAnswers() == null) {
+                continue;
+            }
+            for (ValuationResponse.Answer answer : response.getAnswers()) {
+                String questionId = answer.getQuestionId();
+                if (questionId == null) {
+                    continue;
+                }
+                boolean owned = group.equals(owners.get(questionId));
+                ValuationResponse.Answer existing = answers.get(questionId);
+                if (existing != null) {
+                    fanOutConflicts.increment();
+                }
+                if (existing == null
+                        || (owned && !ownerAnswered.contains(questionId))
+                        || (!ownerAnswered.contains(questionId) && existing.getValue() == null && answer.getValue() != null)) {
+                    answers.put(questionId, answer);
+                }
+                if (owned) {
+                    ownerAnswered.add(questionId);
+                }
+            }
+        }
+
+        List<ValuationResponse.Answer> ordered = new ArrayList<>(answers.size());
+        for (Vr4bMappingTable.Question question : Vr4bMappingTable.questions()) {
+            ValuationResponse.Answer answer = answers.remove(question.questionId());
+            if (answer == null && owners.containsKey(question.questionId())) {
+                answer = new ValuationResponse.Answer();
+                answer.setQuestionId(question.questionId());
+                answer.setAnswerType(question.answerType());
+            }
+            if (answer != null) {
+                ordered.add(answer);
+            }
+        }
+        ordered.addAll(answers.values());
+
+        if (merged == null) {
+            merged = newEnvelope();
+        }
+        merged.setAnswers(ordered);
+        if (merged.getAnswersFormVersions() == null) {
+            merged.setAnswersFormVersions(new ArrayList<>());
+        }
+        return merged;
+    }
+
+    /**
+     * Adds locally resolved answers to the model's response, keeping mapping table order. A local answer
+     * replaces any model answer for the same question.
+     */
+    private ValuationResponse withLocalAnswers(ValuationResponse response,
+                                               Map<String, ValuationResponse.Answer> localAnswers) {
+        if (localAnswers.isEmpty()) {
+            return response;
+        }
+        Map<String, ValuationResponse.Answer> remoteAnswers = new LinkedHashMap<>();
+        if (response.getAnswers() != null) {
+            response.getAnswers().forEach(answer -> remoteAnswers.putIfAbsent(answer.getQuestionId(), answer));
+        }
+
+        List<ValuationResponse.Answer> answers = new ArrayList<>();
+        for (Vr4bMappingTable.Question question : Vr4bMappingTable.questions()) {
+            ValuationResponse.Answer remote = remoteAnswers.remove(question.questionId());
+            ValuationResponse.Answer answer = localAnswers.getOrDefault(question.questionId(), remote);
+            if (answer != null) {
+                answers.add(answer);
+            }
+        }
+        answers.addAll(remoteAnswers.values());
+        response.setAnswers(answers);
+        return response;
+    }
+
+    /**
+     * Creates the response envelope required by the system prompt, for responses assembled without the model.
+     */
+    private static ValuationResponse newEnvelope() {
+        String now = Instant.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        ValuationResponse response = new ValuationResponse();
+        response.setCreatedUtc(now);
+        response.setLastUpdatedUtc(now);
+        response.setFormCode("VR4B");
+        response.setStatus("inProgress");
+        response.setTransactionId("Translated from legacy report");
+        response.setAnswers(new ArrayList<>());
+        response.setAnswersFormVersions(new ArrayList<>());
+        return response;
+    }
+
+    /**
+     * Streams the completion, emitting each answer as soon as its JSON object is complete.
+     *
+     * If the streamed text cannot be parsed incrementally, the accumulated response is parsed in full
+     * with the same lenient handling as the non-streaming path; answers already emitted are not repeated.
+     */
+    private ValuationResponse streamValuationResponse(OpenAIDeploymentPool.PooledDeployment deployment,
+                                                      ChatCompletionsOptions options, String requestId,
+                                                      Consumer<ValuationResponse.Answer> answerListener,
+                                                      long started) throws AzureOpenAIServiceException {
+        StringBuilder responseContent = new StringBuilder();
+        AtomicBoolean firstAnswer = new AtomicBoolean(true);
+        StreamingValuationParser parser;
+        try {
+            parser = new StreamingValuationParser(objectMapper, answer -> {
+                if (firstAnswer.compareAndSet(true, false)) {
+                    timeToFirstAnswer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+                answerListener.accept(answer);
+            });
+        } catch (IOException e) {
+            throw new AzureOpenAIServiceException("Failed to create streaming parser: " + e.getMessage(), e);
+        }
+
+        IOException parseError = null;
+        for (ChatCompletions chunk : deployment.getClient().getChatCompletionsStream(deployment.getDeploymentName(), options)) {
+            // Azure sends content-filter results in chunks without choices
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()
+                    || chunk.getChoices().get(0).getDelta() == null) {
+                continue;
+            }
+            String delta = chunk.getChoices().get(0).getDelta().getContent();
+            if (delta == null) {
+                continue;
+            }
+            responseContent.append(delta);
+            if (parseError == null) {
+                try {
+                    parser.feed(delta);
+                } catch (IOException e) {
+                    parseError = e;
+                    logger.warn("Incremental parsing failed for request {}, parsing the full response instead: {}",
+                            requestId, e.getMessage());
+                }
+            }
+        }
+        logger.info("Received streamed response from Azure OpenAI: {} characters, {} answers parsed incrementally",
+                responseContent.length(), parser.getAnswerCount());
+
+        if (parseError == null) {
+            try {
+                return parser.finish();
+            } catch (IOException e) {
+                logger.warn("Incremental parsing failed for request {}, parsing the full response instead: {}",
+                        requestId, e.getMessage());
+            }
+        }
+
+        ValuationResponse valuationResponse = parseValuationResponse(responseContent.toString(), requestId);
+        List<ValuationResponse.Answer> answers = valuationResponse.getAnswers();
+        if (answers != null && answers.size() > parser.getAnswerCount()) {
+            answers.subList(parser.getAnswerCount(), answers.size()).forEach(answerListener);
+        }
+        return valuationResponse;
+    }
+
+    /**
+     * Builds the response cache key from the normalized text, the version of both prompts for these
+     * questions, and the deployment and sampling settings.
+     */
+    private String responseCacheKey(List<Vr4bMappingTable.Question> questions, String extractedText) {
+        String normalizedText = WHITESPACE.matcher(extractedText).replaceAll(" ").trim();
+        return LocalFileCache.keyOf(
+                LocalFileCache.keyOf(normalizedText),
+                promptVersion(questions),
+                deploymentPool.describe(),
+                String.valueOf(config.getTemperature()),
+                String.valueOf(config.getMaxTokens()));
+    }
+
+    /**
+     * Hashes the system prompt for the given questions together with the user prompt template, so any
+     * change to either produces new cache keys.
+     */
+    private String promptVersion(List<Vr4bMappingTable.Question> questions) {
+        return LocalFileCache.keyOf(getSystemPrompt(questions), buildValuationPrompt("{extractedText}", "{requestId}"));
+    }
+
+    private Optional<ValuationResponse> readCachedResponse(String cacheKey) {
+        Optional<Path> cached = responseCache.get(cacheKey);
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(cached.get().toFile(), ValuationResponse.class));
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cached Azure OpenAI response {}: {}", cacheKey, e.getMessage());
+            responseCache.invalidate(cacheKey);
+            return Optional.empty();
+        }
+    }
+
+    private void writeCachedResponse(String cacheKey, ValuationResponse valuationResponse) {
+        try {
+            responseCache.put(cacheKey, objectMapper.writeValueAsBytes(valuationResponse));
+        } catch (IOException e) {
+            logger.warn("Failed to cache Azure OpenAI response {}: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes cache directories written for earlier prompt template versions.
+     */
+    private static void purgeStalePromptVersions(Path baseDirectory, String currentVersion) {
+        if (!Files.isDirectory(baseDirectory)) {
+            return;
+        }
+        try (Stream<Path> versions = Files.list(baseDirectory)) {
+            versions.filter(Files::isDirectory)
+                    .filter(directory -> !directory.getFileName().toString().equals(currentVersion))
+                    .forEach(directory -> {
+                        logger.info("Purging Azure OpenAI response cache for stale prompt version {}",
+                                directory.getFileName());
+                        try (Stream<Path> files = Files.walk(directory)) {
+                            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                        } catch (IOException e) {
+                            logger.warn("Failed to purge {}: {}", directory, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            logger.warn("Failed to list Azure OpenAI response cache versions in {}: {}", baseDirectory, e.getMessage());
+        }
+    }
+
     /**
      * Builds the valuation prompt for the extracted text.
      */
@@ -102,9 +794,9 @@ public class AzureOpenAIService {
     }
 
     /**
-     * Gets the system prompt for the AI model.
+     * Gets the system prompt for the AI model, restricted to the given questions of the mapping table.
      */
-    private String getSystemPrompt() {
+    private String getSystemPrompt(List<Vr4bMappingTable.Question> questions) {
         return """
         You are an expert UK property valuation data extraction assistant.
         Your ONLY job is to convert unstructured valuation report text into one precise JSON object and nothing else.
@@ -147,55 +839,12 @@ public class AzureOpenAIService {
         - RecommendedRetentionAmount: if not found, set 0.0 (default).
         
         MAPPING TABLE (hardcoded):
-        - VR4B_LenderReference                               -> text
-        - VR4B_ApplicantNames                                -> text
-        - VR4B_Transaction                                   -> options
-        - VR4B_PurchasePriceEstimatedValuePpEv               -> decimal
-        - VR4B_PropertyAddressHouseFlat                      -> text (extract house/flat number only)
-        - VR4B_RoadNumber                                    -> text (extract first road token after house number)
-        - VR4B_RoadName                                      -> text (remaining road/street name)
-        - VR4B_Area                                          -> text
-        - VR4B_Town                                          -> text
-        - VR4B_County                                        -> text
-        - VR4B_PostCode                                      -> text
-        - VR4B_AddressMatch                                  -> options
-        - VR4B_ActualAddressIfAddressNotAMatch               -> text
-        - VR4B_InspectionDate                                -> date
-        - VR4B_ReportDate                                    -> date
-        - VR4B_CertificationIsThePropertySuitableSecurity    -> options
-        - VR4B_IfPropertyIsNotSuitableSecurityPleaseIdentifyWhy -> options
-        - VR4B_SecurityOther                                 -> text
-        - VR4B_AreAllFlatsMarketableAndMortgageable          -> options
-        - VR4B_IsThePropertyBuiltOfTraditionalConstruction   -> options
-        - VR4B_SpecialistReportsRequired                     -> options
-        - VR4B_AnyApplicableLicensingSchemeInPlace           -> options
-        - VR4B_MarketValue                                   -> decimal (maps from previous VR4B_ValuationMarketValueAggregate)
-        - VR4B_MarketValAfterWorksIssuesResolved             -> decimal
-        - VR4B_MarketRent                                    -> decimal (maps from VR4B_MarketRentAggregate)
-        - VR4B_ReinstatementCost                             -> decimal
-        - VR4B_DoesTheReinstatementCostCarryHighUncertaintyDueToSpecialistBuildingFeaturesListingOrOtherMatters -> options
-        - VR4B_RecommendedRetentionAmount                    -> decimal (default 0.0 if missing)
-        - VR4B_Tenure                                        -> options (maps from VR4B_TitleTenureAndAccessTenure)
-        - VR4B_AnyFlyingCreepingFhEvident                    -> options
-        - VR4B_IfLeaseholdWhatIsTheUnexpiredLeaseTerm        -> number
-        - VR4B_WhatPercentageOfTotalAreaIsFfh                -> number
-        - VR4B_DoesThereAppearToBeSharedAccess               -> options
-        - VR4B_IsAccessFromPublicLand                        -> options
-        - VR4B_IsAccessMadeUp                                -> options
-        - VR4B_SecurityProperyTypeAndStyle                   -> options
-        - VR4B_NumberOfFloorsInTheBuilding                   -> number
-        - VR4B_HowManyFlatsAreInTheEntireBuilding            -> number
-        - VR4B_IsThePropertyServedByALift                    -> options
-        - VR4B_IsThePropertyANewBuild                        -> options
-
-        - Include VR4B_ValuersDeclarationValuerName, VR4B_Qualification, VR4B_RicsNumber, VR4B_FirmName,
-          VR4B_FirmAddressLine1-3, VR4B_TelephoneNo, VR4B_EmailAddressLine1, VR4B_LenderReportPhotographs
-          with null values if not found.
+        %s
 
         OUTPUT RULE:
         - Return ONLY the JSON object (no markdown, no text explanation).
         - Do not include extra commas, logs, or summaries.
-        """;
+        """.formatted(Vr4bMappingTable.render(questions));
     }
 
     /**
@@ -208,11 +857,33 @@ public class AzureOpenAIService {
             
             return objectMapper.readValue(jsonContent, ValuationResponse.class);
         } catch (JsonProcessingException e) {
+            List<ValuationResponse.Answer> salvaged = salvageAnswers(responseContent);
+            if (!salvaged.isEmpty()) {
+                // Answers cut off by the malformed part count as missing; invalid ones are repaired later
+                logger.warn("Failed to parse AI response as JSON for request {}, keeping {} answers before the error: {}",
+                        requestId, salvaged.size(), e.getMessage());
+                ValuationResponse response = newEnvelope();
+                response.setAnswers(salvaged);
+                return response;
+            }
             logger.error("Failed to parse AI response as JSON: {}", e.getMessage());
             throw new AzureOpenAIServiceException("Failed to parse AI response: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Collects the answers that parse completely before the first syntax error in a response.
+     */
+    private List<ValuationResponse.Answer> salvageAnswers(String responseContent) {
+        List<ValuationResponse.Answer> answers = new ArrayList<>();
+        try {
+            new StreamingValuationParser(objectMapper, answers::add).feed(responseContent);
+        } catch (IOException e) {
+            logger.debug("Salvage parse stopped at: {}", e.getMessage());
+        }
+        return answers;
+    }
+
     /**
      * Extracts JSON content from the AI response, handling cases where the response might contain additional text.
      */
@@ -229,10 +900,19 @@ public class AzureOpenAIService {
         return responseContent.trim();
     }
 
+    /**
+     * An answer that failed validation, with the reason given to the repair prompt.
+     */
+    private record InvalidAnswer(ValuationResponse.Answer answer, String reason) {
+    }
+
     /**
      * Custom exception for Azure OpenAI service errors.
      */
     public static class AzureOpenAIServiceException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
         public AzureOpenAIServiceException(String message) {
             super(message);
         }
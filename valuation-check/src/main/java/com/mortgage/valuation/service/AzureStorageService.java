@@ -1,19 +1,48 @@
 package com.mortgage.valuation.service;
 
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobItemProperties;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import com.azure.storage.common.ParallelTransferOptions;
+import com.mortgage.valuation.cache.LocalFileCache;
+import com.mortgage.valuation.cache.ReportBlobIndex;
+import com.mortgage.valuation.concurrent.Deadline;
 import com.mortgage.valuation.config.AzureStorageConfig;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationReport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for interacting with Azure Blob Storage to fetch valuation report PDFs.
@@ -23,18 +52,46 @@ public class AzureStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(AzureStorageService.class);
 
+    private static final Duration INDEX_CLOCK_SKEW = Duration.ofMinutes(1);
+
     private final BlobContainerClient containerClient;
     private final AzureStorageConfig config;
+    private final ValuationConfig valuationConfig;
+    private final MeterRegistry meterRegistry;
+    private final LocalFileCache reportCache;
+    private final ReportBlobIndex reportIndex;
+
+    // Latest last-modified time seen by the index; rescans only record blobs changed after it
+    private volatile OffsetDateTime indexWatermark;
 
     @Autowired
-    public AzureStorageService(AzureStorageConfig config) {
+    public AzureStorageService(AzureStorageConfig config, ValuationConfig valuationConfig,
+                               MeterRegistry meterRegistry) {
+        this(containerClient(config), config, valuationConfig, meterRegistry);
+    }
+
+    AzureStorageService(BlobContainerClient containerClient, AzureStorageConfig config,
+                        ValuationConfig valuationConfig, MeterRegistry meterRegistry) {
+        this.containerClient = containerClient;
         this.config = config;
-        
+        this.valuationConfig = valuationConfig;
+        this.meterRegistry = meterRegistry;
+
+        AzureStorageConfig.Cache cacheConfig = config.getCache();
+        this.reportCache = cacheConfig.isEnabled()
+            ? new LocalFileCache("valuation-reports", Paths.get(cacheConfig.getDirectory()),
+                cacheConfig.getMaxSizeMb() * 1024 * 1024, meterRegistry)
+            : null;
+        this.reportIndex = config.getIndex().isEnabled()
+            ? new ReportBlobIndex(config.getValuationReportsPath(), meterRegistry)
+            : null;
+    }
+
+    private static BlobContainerClient containerClient(AzureStorageConfig config) {
         BlobServiceClient blobServiceClient = new BlobServiceClientBuilder()
             .connectionString(config.getConnectionString())
             .buildClient();
-            
-        this.containerClient = blobServiceClient.getBlobContainerClient(config.getContainerName());
+        return blobServiceClient.getBlobContainerClient(config.getContainerName());
     }
 
     /**
@@ -42,42 +99,269 @@ public class AzureStorageService {
      *
      * @param loanApplicationId The loan application ID
      * @param requestId The request ID
-     * @return The PDF content as a byte array
+     * @param deadline The request's deadline; each storage call is given the time left as its timeout
+     * @return A read-only handle to the PDF content; close it once the content is no longer needed
      * @throws IOException if there's an error reading the blob
+     * @throws Deadline.DeadlineExceededException if the deadline expired before the download finished
      */
-    public byte[] fetchValuationReport(String loanApplicationId, String requestId) throws IOException {
+    public ValuationReport fetchValuationReport(String loanApplicationId, String requestId, Deadline deadline)
+            throws IOException, Deadline.DeadlineExceededException {
         String blobPath = config.buildBlobPath(loanApplicationId, requestId);
         logger.info("Fetching valuation report from Azure Storage: {}", blobPath);
-        // First try exact path (if the blob was uploaded with the requestId as the name)
         try {
+            // Go straight to the blob when the index already knows it
+            if (reportIndex != null) {
+                Optional<ReportBlobIndex.Entry> indexed = reportIndex.get(loanApplicationId, requestId);
+                if (indexed.isPresent()) {
+                    try {
+                        return downloadReport(indexed.get().blobName(), deadline);
+                    } catch (BlobStorageException e) {
+                        if (e.getStatusCode() != 404) {
+                            throw e;
+                        }
+                        logger.info("Indexed blob {} no longer exists, falling back to listing", indexed.get().blobName());
+                        reportIndex.remove(loanApplicationId, requestId);
+                    }
+                }
+            }
 
-            // search for any blob under the folder prefix
-            String prefix = blobPath.endsWith("/") ? blobPath : blobPath + "/";
-            String blobToDownload = null;
+            return downloadReport(findReportBlob(blobPath, deadline), deadline);
 
-            for (BlobItem item : containerClient.listBlobs(new ListBlobsOptions().setPrefix(prefix), null)) {
-                String name = item.getName();
-                if (name.toLowerCase().endsWith(".pdf")) {
-                    blobToDownload = name;
-                    break;
-                }
+        } catch (ReportTooLargeException e) {
+            logger.error("Rejected valuation report {}: {}", blobPath, e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            if (deadline.isExpired()) {
+                logger.warn("Gave up downloading valuation report {}: {}", blobPath, e.getMessage());
+                throw deadline.exceeded("report download");
             }
+            logger.error("Error downloading valuation report from Azure Storage: {}", e.getMessage(), e);
+            throw new IOException("Failed to download valuation report: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the report index for recently modified reports once the application has started. This lists
+     * every blob under the reports path once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpReportIndex() {
+        if (reportIndex == null) {
+            return;
+        }
+        OffsetDateTime since = OffsetDateTime.now().minus(config.getIndex().getWarmupLookback());
+        try {
+            int indexed = indexReportsModifiedSince(since);
+            logger.info("Warmed report index with {} reports modified since {}", indexed, since);
+        } catch (Exception e) {
+            logger.warn("Report index warm-up failed, reports will be indexed on first use: {}", e.getMessage());
+        }
+    }
 
-            if (blobToDownload == null) {
-                logger.error("Valuation report not found in Azure Storage: {}", blobPath);
-                throw new IOException("Valuation report not found: " + blobPath);
+    /**
+     * Rescans the reports folder for blobs modified since the previous scan, when enabled. Blob listings
+     * cannot filter by modification time, so every run lists the whole reports path: O(blobs in the
+     * container). Without it, reports uploaded after startup are indexed on their first lookup.
+     */
+    @Scheduled(fixedDelayString = "${azure.storage.index.rescan-interval:PT5M}",
+               initialDelayString = "${azure.storage.index.rescan-interval:PT5M}")
+    public void rescanReportIndex() {
+        if (reportIndex == null || indexWatermark == null || !config.getIndex().isRescanEnabled()) {
+            return;
+        }
+        try {
+            int indexed = indexReportsModifiedSince(indexWatermark.minus(INDEX_CLOCK_SKEW));
+            logger.debug("Rescanned report index: {} reports updated, {} indexed in total", indexed, reportIndex.size());
+        } catch (Exception e) {
+            logger.warn("Report index rescan failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lists the whole reports folder and indexes every blob modified after the given time.
+     *
+     * @return The number of blobs indexed
+     */
+    private int indexReportsModifiedSince(OffsetDateTime since) {
+        String prefix = config.getValuationReportsPath() + "/";
+        OffsetDateTime latest = indexWatermark != null ? indexWatermark : since;
+        int indexed = 0;
+
+        for (BlobItem item : containerClient.listBlobs(new ListBlobsOptions().setPrefix(prefix), null)) {
+            BlobItemProperties properties = item.getProperties();
+            OffsetDateTime lastModified = properties.getLastModified();
+            if (lastModified == null || !lastModified.isAfter(since)) {
+                continue;
+            }
+            if (reportIndex.record(item.getName(), properties.getETag(), properties.getContentLength(), lastModified)) {
+                indexed++;
+            }
+            if (lastModified.isAfter(latest)) {
+                latest = lastModified;
             }
+        }
+
+        indexWatermark = latest;
+        return indexed;
+    }
 
-            logger.info("Found blob to download: {}", blobToDownload);
-            BlobClient blobClient = containerClient.getBlobClient(blobToDownload);
-            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-                blobClient.downloadStream(outputStream);
-                return outputStream.toByteArray();
+    /**
+     * Finds the first PDF under the request's folder with a prefix listing.
+     */
+    private String findReportBlob(String blobPath, Deadline deadline) throws IOException {
+        // search for any blob under the folder prefix
+        String prefix = blobPath.endsWith("/") ? blobPath : blobPath + "/";
+
+        for (BlobItem item : containerClient.listBlobs(new ListBlobsOptions().setPrefix(prefix), deadline.timeout())) {
+            String name = item.getName();
+            if (name.toLowerCase().endsWith(".pdf")) {
+                logger.info("Found blob to download: {}", name);
+                return name;
             }
+        }
 
-        } catch (Exception e) {
-            logger.error("Error downloading valuation report from Azure Storage: {}", e.getMessage(), e);
-            throw new IOException("Failed to download valuation report: " + e.getMessage(), e);
+        logger.error("Valuation report not found in Azure Storage: {}", blobPath);
+        throw new IOException("Valuation report not found: " + blobPath);
+    }
+
+    /**
+     * Downloads a report blob, through the local cache when it is enabled.
+     */
+    private ValuationReport downloadReport(String blobName, Deadline deadline) throws IOException {
+        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        BlobProperties properties = blobClient.getPropertiesWithResponse(null, deadline.timeout(), Context.NONE).getValue();
+        if (reportIndex != null) {
+            reportIndex.record(blobName, properties.getETag(), properties.getBlobSize(), properties.getLastModified());
+        }
+
+        // Reject oversized reports before any content is transferred
+        long size = properties.getBlobSize();
+        if (size > valuationConfig.getMaxFileSizeBytes()) {
+            throw new ReportTooLargeException(String.format("Valuation report %s is %d bytes, exceeding the %d MB limit",
+                blobName, size, valuationConfig.getMaxFileSizeMb()));
+        }
+
+        if (reportCache != null) {
+            return fetchThroughCache(blobClient, blobName, properties.getETag(), size, deadline);
+        }
+        if (config.getDownloadMode() == AzureStorageConfig.DownloadMode.HEAP) {
+            long start = System.nanoTime();
+            try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size)) {
+                blobClient.downloadStreamWithResponse(outputStream, null, null, null, false, deadline.timeout(),
+                    Context.NONE);
+                recordDownload("single", size, System.nanoTime() - start);
+                return ValuationReport.ofBytes(blobName, outputStream.toByteArray());
+            }
+        }
+
+        Path tempFile = Files.createTempFile("valuation-report-", ".pdf");
+        try {
+            downloadToFile(blobClient, tempFile, properties.getETag(), size, deadline);
+            return ValuationReport.mapped(blobName, tempFile, true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Serves a blob from the local report cache, downloading it only when the cached copy is missing
+     * or the blob's ETag has changed since it was cached.
+     */
+    private ValuationReport fetchThroughCache(BlobClient blobClient, String blobName, String eTag, long size,
+                                              Deadline deadline) throws IOException {
+        // A changed blob gets a new ETag and therefore a new cache key
+        String cacheKey = LocalFileCache.keyOf(blobName, eTag);
+
+        Optional<Path> cached = reportCache.get(cacheKey);
+        if (cached.isPresent()) {
+            try {
+                ValuationReport report = openReport(blobName, cached.get());
+                logger.info("Serving valuation report from local cache: {} (ETag {})", blobName, eTag);
+                return report;
+            } catch (NoSuchFileException e) {
+                logger.debug("Cached report {} was evicted before it could be opened", blobName);
+            }
+        }
+
+        Path tempFile = reportCache.createTempFile();
+        try {
+            // Pin the download to the ETag we keyed on so a concurrent overwrite cannot be cached under it
+            downloadToFile(blobClient, tempFile, eTag, size, deadline);
+            // Open before handing the file to the cache; the mapping survives the move or an eviction
+            ValuationReport report = openReport(blobName, tempFile);
+            reportCache.put(cacheKey, tempFile);
+            return report;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Streams a blob straight to a local file without buffering it on the heap. Blobs at or above the
+     * parallel threshold are fetched as concurrent byte ranges written at their offsets in the file.
+     */
+    private void downloadToFile(BlobClient blobClient, Path target, String eTag, long size, Deadline deadline)
+            throws IOException {
+        BlobRequestConditions conditions = eTag != null ? new BlobRequestConditions().setIfMatch(eTag) : null;
+        AzureStorageConfig.Download download = config.getDownload();
+        long start = System.nanoTime();
+
+        if (size >= download.getParallelThresholdMb() * 1024 * 1024) {
+            ParallelTransferOptions transferOptions = new ParallelTransferOptions()
+                .setBlockSizeLong(download.getBlockSizeMb() * 1024 * 1024)
+                .setMaxConcurrency(download.getMaxConcurrency());
+            BlobDownloadToFileOptions options = new BlobDownloadToFileOptions(target.toString())
+                .setParallelTransferOptions(transferOptions)
+                .setRequestConditions(conditions)
+                // The target already exists as an empty temp file
+                .setOpenOptions(Set.of(StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+            blobClient.downloadToFileWithResponse(options, deadline.timeout(), Context.NONE);
+            recordDownload("parallel", size, System.nanoTime() - start);
+            return;
+        }
+
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            blobClient.downloadStreamWithResponse(outputStream, null, null, conditions, false, deadline.timeout(),
+                Context.NONE);
+        }
+        recordDownload("single", size, System.nanoTime() - start);
+    }
+
+    private void recordDownload(String mode, long bytes, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000d;
+        double bytesPerSecond = bytes / seconds;
+        Timer.builder("valuation.storage.download")
+            .description("Report download time")
+            .tag("mode", mode)
+            .register(meterRegistry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("valuation.storage.download.throughput")
+            .description("Achieved throughput per report download")
+            .baseUnit("bytes/s")
+            .tag("mode", mode)
+            .register(meterRegistry)
+            .record(bytesPerSecond);
+        logger.info("Downloaded {} bytes ({}) in {} ms at {} KB/s",
+            bytes, mode, elapsedNanos / 1_000_000, Math.round(bytesPerSecond / 1024));
+    }
+
+    private ValuationReport openReport(String blobName, Path file) throws IOException {
+        if (config.getDownloadMode() == AzureStorageConfig.DownloadMode.HEAP) {
+            return ValuationReport.ofBytes(blobName, Files.readAllBytes(file));
+        }
+        return ValuationReport.mapped(blobName, file, false);
+    }
+
+    /**
+     * Thrown when a report exceeds the configured maximum file size.
+     */
+    public static class ReportTooLargeException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ReportTooLargeException(String message) {
+            super(message);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.mortgage.valuation.service;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.mortgage.valuation.concurrent.AimdConcurrencyLimiter;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.TokenBucketRateLimiter;
+import com.mortgage.valuation.config.AzureOpenAIConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side admission control for one Azure OpenAI deployment.
+ *
+ * A call first takes a request and its estimated tokens from the per-minute token buckets, then a slot
+ * from the adaptive concurrency limit, waiting no longer than max-wait or the request's deadline. A 429 response lowers the concurrency limit, pauses the buckets
+ * for the Retry-After period and retries; other transient failures are retried with exponential backoff.
+ */
+public class DeploymentRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeploymentRateLimiter.class);
+
+    private static final HttpHeaderName RETRY_AFTER_MS = HttpHeaderName.fromString("retry-after-ms");
+    private static final Duration TRANSIENT_BACKOFF = Duration.ofSeconds(1);
+
+    private final String deploymentName;
+    private final AzureOpenAIConfig.RateLimit config;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final Counter throttled;
+    private final Counter retries;
+    private final Timer admissionWait;
+
+    public DeploymentRateLimiter(String deploymentName, AzureOpenAIConfig.RateLimit config, MeterRegistry meterRegistry) {
+        this.deploymentName = deploymentName;
+        this.config = config;
+        this.rateLimiter = new TokenBucketRateLimiter(config.getRequestsPerMinute(), config.getTokensPerMinute());
+        this.concurrencyLimiter = new AimdConcurrencyLimiter(config.getInitialConcurrency(),
+                config.getMinConcurrency(), config.getMaxConcurrency(), config.getBackoffRatio());
+
+        this.throttled = Counter.builder("valuation.llm.throttled").tag("deployment", deploymentName)
+                .description("Completions rejected with 429 by the deployment").register(meterRegistry);
+        this.retries = Counter.builder("valuation.llm.retries").tag("deployment", deploymentName)
+                .description("Completion attempts retried by the client-side rate limiter").register(meterRegistry);
+        this.admissionWait = Timer.builder("valuation.llm.admission.wait").tag("deployment", deploymentName)
+                .description("Time spent waiting for rate and concurrency limits").register(meterRegistry);
+        Gauge.builder("valuation.llm.concurrency.limit", concurrencyLimiter, AimdConcurrencyLimiter::getLimit)
+                .tag("deployment", deploymentName).description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("valuation.llm.inflight", concurrencyLimiter, AimdConcurrencyLimiter::getInFlight)
+                .tag("deployment", deploymentName).description("Completions currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("valuation.llm.ratelimit.tokens.available", rateLimiter, TokenBucketRateLimiter::getAvailableTokens)
+                .tag("deployment", deploymentName).description("Tokens left in the per-minute budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a completion call within the deployment's limits, retrying throttled and transient failures.
+     *
+     * @param estimatedTokens Estimated prompt plus completion tokens
+     * @param requestId The request ID for logging
+     * @param deadline The request's deadline, which caps the time spent waiting for the limits
+     * @param call The completion call
+     * @return The call's result
+     * @throws AzureOpenAIService.AzureOpenAIServiceException if the limits cannot be acquired within max-wait,
+     *         the call keeps failing, or it fails with a non-retryable error
+     * @throws Deadline.DeadlineExceededException if the deadline expires before the limits are acquired
+     */
+    public <T> T execute(long estimatedTokens, String requestId, Deadline deadline, CompletionCall<T> call)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        for (int attempt = 0; ; attempt++) {
+            acquire(estimatedTokens, requestId, deadline);
+            try {
+                T result = call.call();
+                concurrencyLimiter.onSuccess();
+                return result;
+            } catch (HttpResponseException e) {
+                int status = e.getResponse() != null ? e.getResponse().getStatusCode() : 0;
+                if (status == 429) {
+                    concurrencyLimiter.onThrottled();
+                    throttled.increment();
+                    // The next acquire waits out the pause
+                    Duration retryAfter = retryAfter(e.getResponse().getHeaders());
+                    rateLimiter.pause(retryAfter);
+                    logger.warn("Deployment {} throttled request {} (attempt {}), concurrency limit now {}, retry after {}",
+                            deploymentName, requestId, attempt + 1, concurrencyLimiter.getLimit(), retryAfter);
+                    if (attempt >= config.getMaxRetries()) {
+                        throw e;
+                    }
+                } else {
+                    concurrencyLimiter.onIgnored();
+                    if (!isTransient(status) || attempt >= config.getMaxRetries()) {
+                        throw e;
+                    }
+                    logger.warn("Deployment {} returned {} for request {} (attempt {})",
+                            deploymentName, status, requestId, attempt + 1);
+                    backoff(attempt);
+                }
+            } catch (UncheckedIOException e) {
+                concurrencyLimiter.onIgnored();
+                if (attempt >= config.getMaxRetries() || OpenAIDeploymentPool.isCancellation(e)) {
+                    throw e;
+                }
+                logger.warn("I/O error calling deployment {} for request {} (attempt {}): {}",
+                        deploymentName, requestId, attempt + 1, e.getMessage());
+                backoff(attempt);
+            } catch (RuntimeException | AzureOpenAIService.AzureOpenAIServiceException e) {
+                concurrencyLimiter.onIgnored();
+                throw e;
+            }
+            retries.increment();
+        }
+    }
+
+    public String getDeploymentName() {
+        return deploymentName;
+    }
+
+    private void acquire(long estimatedTokens, String requestId, Deadline deadline)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        deadline.check("LLM rate limit");
+        long started = System.nanoTime();
+        Duration timeLeft = deadline.timeout();
+        boolean deadlineBound = timeLeft != null && timeLeft.compareTo(config.getMaxWait()) < 0;
+        Duration maxWait = deadlineBound ? timeLeft : config.getMaxWait();
+        try {
+            if (!rateLimiter.tryAcquire(estimatedTokens, maxWait)) {
+                notAcquired("Rate", maxWait, requestId, deadline, deadlineBound);
+            }
+            long remaining = maxWait.toNanos() - (System.nanoTime() - started);
+            if (!concurrencyLimiter.tryAcquire(Duration.ofNanos(Math.max(remaining, 0)))) {
+                notAcquired("Concurrency", maxWait, requestId, deadline, deadlineBound);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureOpenAIService.AzureOpenAIServiceException("Interrupted waiting for rate limit", e);
+        } finally {
+            admissionWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Fails an acquire that timed out: with the deadline if it cut the wait short, otherwise as a service error.
+     */
+    private void notAcquired(String limit, Duration maxWait, String requestId, Deadline deadline, boolean deadlineBound)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        if (deadlineBound) {
+            throw deadline.exceeded("LLM rate limit");
+        }
+        throw new AzureOpenAIService.AzureOpenAIServiceException(limit + " limit for deployment " + deploymentName
+                + " not available within " + maxWait + " for request " + requestId);
+    }
+
+    /**
+     * Reads the retry delay from retry-after-ms or Retry-After (seconds), falling back to the default.
+     */
+    private Duration retryAfter(HttpHeaders headers) {
+        try {
+            String millis = headers.getValue(RETRY_AFTER_MS);
+            if (millis != null) {
+                return Duration.ofMillis(Long.parseLong(millis.trim()));
+            }
+            String seconds = headers.getValue(HttpHeaderName.RETRY_AFTER);
+            if (seconds != null) {
+                return Duration.ofSeconds(Long.parseLong(seconds.trim()));
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Unparseable Retry-After header from deployment {}", deploymentName);
+        }
+        return config.getDefaultRetryAfter();
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 408 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    private static void backoff(int attempt) throws AzureOpenAIService.AzureOpenAIServiceException {
+        try {
+            Thread.sleep(TRANSIENT_BACKOFF.toMillis() << Math.min(attempt, 5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureOpenAIService.AzureOpenAIServiceException("Interrupted during retry backoff", e);
+        }
+    }
+
+    /**
+     * A completion call made within the limits.
+     */
+    @FunctionalInterface
+    public interface CompletionCall<T> {
+        T call() throws AzureOpenAIService.AzureOpenAIServiceException;
+    }
+}
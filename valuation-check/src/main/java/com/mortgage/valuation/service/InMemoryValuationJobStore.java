@@ -0,0 +1,54 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job store local to this instance. Finished jobs are dropped once they are older than the
+ * configured retention; expired jobs are swept on each save.
+ */
+@Component
+public class InMemoryValuationJobStore implements ValuationJobStore {
+
+    private final Map<String, ValuationJob> jobs = new ConcurrentHashMap<>();
+    private final Duration retention;
+
+    @Autowired
+    public InMemoryValuationJobStore(ValuationConfig valuationConfig) {
+        this.retention = valuationConfig.getJobs().getRetention();
+    }
+
+    @Override
+    public void save(ValuationJob job) {
+        evictExpired();
+        jobs.put(job.getJobId(), job);
+    }
+
+    @Override
+    public Optional<ValuationJob> find(String jobId) {
+        ValuationJob job = jobs.get(jobId);
+        if (job != null && isExpired(job, Instant.now())) {
+            jobs.remove(jobId, job);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void evictExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> isExpired(job, now));
+    }
+
+    private boolean isExpired(ValuationJob job, Instant now) {
+        return job.getStatus().isFinished() && job.getCompletedAt() != null
+                && job.getCompletedAt().plus(retention).isBefore(now);
+    }
+}
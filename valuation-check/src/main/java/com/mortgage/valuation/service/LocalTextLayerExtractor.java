@@ -0,0 +1,113 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.AzureDocumentIntelligenceConfig;
+import com.mortgage.valuation.model.ValuationReport;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the embedded text layer of a PDF locally and scores whether each page's text is usable.
+ *
+ * Digitally generated reports carry a clean text layer; scanned pages have none (or OCR noise from
+ * the scanner), and those are left for the remote analyzer.
+ */
+@Component
+public class LocalTextLayerExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalTextLayerExtractor.class);
+
+    private final AzureDocumentIntelligenceConfig.LocalTextLayer config;
+
+    @Autowired
+    public LocalTextLayerExtractor(AzureDocumentIntelligenceConfig config) {
+        this.config = config.getLocalTextLayer();
+    }
+
+    /**
+     * Extracts and scores the text layer of every page.
+     *
+     * @param report The downloaded report
+     * @return The text layer, or empty if the document cannot be parsed locally
+     */
+    public Optional<TextLayer> read(ValuationReport report) {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(report.getContent()))) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+
+            int pageCount = document.getNumberOfPages();
+            List<PageText> pages = new ArrayList<>(pageCount);
+            for (int pageNumber = 1; pageNumber <= pageCount; pageNumber++) {
+                stripper.setStartPage(pageNumber);
+                stripper.setEndPage(pageNumber);
+                String text = stripper.getText(document).trim();
+                double score = score(text);
+                pages.add(new PageText(pageNumber, text, score, score >= config.getMinQualityScore()));
+            }
+
+            TextLayer textLayer = new TextLayer(pages);
+            logger.info("Read local text layer: {} of {} pages usable", textLayer.usablePageCount(), pageCount);
+            return Optional.of(textLayer);
+        } catch (IOException e) {
+            logger.warn("Could not read PDF text layer locally: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Scores page text between 0 and 1: the share of readable characters, scaled down for pages with
+     * less text than the configured minimum.
+     */
+    double score(String text) {
+        if (text.isEmpty()) {
+            return 0.0;
+        }
+        long readable = text.chars().filter(LocalTextLayerExtractor::isReadable).count();
+        double readableRatio = (double) readable / text.length();
+        double lengthFactor = Math.min(1.0, (double) text.length() / config.getMinCharsPerPage());
+        return readableRatio * lengthFactor;
+    }
+
+    private static boolean isReadable(int c) {
+        return Character.isLetterOrDigit(c)
+                || Character.isWhitespace(c)
+                || ".,:;!?'\"()[]/\\-&%\u00a3$@#*+=_".indexOf(c) >= 0;
+    }
+
+    /**
+     * Text layer of a single page.
+     */
+    public record PageText(int pageNumber, String text, double score, boolean usable) {
+    }
+
+    /**
+     * Text layer of a whole document, in page order.
+     */
+    public record TextLayer(List<PageText> pages) {
+
+        public int pageCount() {
+            return pages.size();
+        }
+
+        public long usablePageCount() {
+            return pages.stream().filter(PageText::usable).count();
+        }
+
+        /**
+         * Page numbers that need the remote analyzer.
+         */
+        public List<Integer> unusablePages() {
+            return pages.stream().filter(page -> !page.usable()).map(PageText::pageNumber).toList();
+        }
+    }
+}
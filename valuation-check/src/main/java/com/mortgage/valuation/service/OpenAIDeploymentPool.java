@@ -0,0 +1,432 @@
+package com.mortgage.valuation.service;
+
+import com.azure.ai.openai.OpenAIClient;
+import com.azure.core.exception.HttpResponseException;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.RequestHedger;
+import com.mortgage.valuation.concurrent.WorkerThreads;
+import com.mortgage.valuation.config.AzureOpenAIConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Routes completions across a pool of Azure OpenAI endpoint/deployment pairs.
+ *
+ * Each call goes to the healthy deployment with the lowest expected latency: the EWMA of its recent
+ * call latencies, scaled by its in-flight calls and divided by its weight. Deployments without samples
+ * are tried first so that every member gets measured. A deployment whose EWMA error rate exceeds the
+ * threshold is ejected for the configured duration and then re-admitted with a clean error rate.
+ * Transport failures, throttling and 5xx responses fail over to the next best deployment.
+ *
+ * With hedging enabled, a completion still running past a percentile of recent latencies is sent
+ * again, to the best deployment not already in use by it, and the first result wins.
+ *
+ * A completion still running when the request's deadline expires is interrupted, and no further
+ * failover or hedge is started for it. Attempts that fail because they were cancelled or interrupted
+ * (a losing hedge, an expired deadline) say nothing about the deployment: they are neither counted as
+ * failures nor failed over.
+ */
+public class OpenAIDeploymentPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAIDeploymentPool.class);
+
+    private final List<PooledDeployment> deployments;
+    private final AzureOpenAIConfig.Routing routing;
+    private final MeterRegistry meterRegistry;
+    private final RequestHedger hedger;
+    private final ExecutorService callExecutor;
+
+    public OpenAIDeploymentPool(List<PooledDeployment> deployments, AzureOpenAIConfig.Routing routing,
+                                AzureOpenAIConfig.Hedging hedging, boolean virtualThreads,
+                                MeterRegistry meterRegistry) {
+        if (deployments.isEmpty()) {
+            throw new IllegalArgumentException("At least one Azure OpenAI deployment is required");
+        }
+        this.deployments = List.copyOf(deployments);
+        this.routing = routing;
+        this.meterRegistry = meterRegistry;
+
+        if (hedging.isEnabled()) {
+            this.hedger = new RequestHedger(hedging.getPercentile(), hedging.getMinDelay(),
+                    hedging.getBudgetPercent() / 100, hedging.getWindowSize(), hedging.getMinSamples());
+            FunctionCounter.builder("valuation.llm.hedges", hedger, RequestHedger::getHedgesIssued)
+                    .tag("result", "issued").description("Hedged completion attempts").register(meterRegistry);
+            FunctionCounter.builder("valuation.llm.hedges", hedger, RequestHedger::getHedgesWon)
+                    .tag("result", "won").description("Hedged completion attempts").register(meterRegistry);
+        } else {
+            this.hedger = null;
+        }
+        // Completions are blocking calls, so hedged and deadline-bound attempts each need their own thread;
+        // the queue holds at most one hedge per waiting caller
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(routing.getMaxConcurrentCalls(),
+                routing.getMaxConcurrentCalls(), 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                WorkerThreads.factory("llm-call-", virtualThreads));
+        executor.allowCoreThreadTimeOut(true);
+        this.callExecutor = executor;
+        Gauge.builder("valuation.llm.calls.queued", executor, e -> e.getQueue().size())
+                .description("Completions waiting for a call thread").register(meterRegistry);
+
+        for (PooledDeployment deployment : this.deployments) {
+            Gauge.builder("valuation.llm.deployment.latency", deployment, PooledDeployment::getLatencyEwmaMillis)
+                    .tag("deployment", deployment.getName()).baseUnit("milliseconds")
+                    .description("EWMA of completion latency per deployment").register(meterRegistry);
+            Gauge.builder("valuation.llm.deployment.error.rate", deployment, PooledDeployment::getErrorRate)
+                    .tag("deployment", deployment.getName())
+                    .description("EWMA of the completion error rate per deployment").register(meterRegistry);
+            Gauge.builder("valuation.llm.deployment.available", deployment, d -> d.isEjected(System.nanoTime()) ? 0 : 1)
+                    .tag("deployment", deployment.getName())
+                    .description("Whether the deployment is currently receiving traffic").register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs a completion on the best available deployment, failing over to the next on retryable errors,
+     * and hedging it on another deployment if it is slow.
+     *
+     * @param estimatedTokens Estimated prompt plus completion tokens, for the deployment's rate limiter
+     * @param requestId The request ID for logging
+     * @param deadline The request's deadline
+     * @param call The completion call
+     * @return The call's result
+     * @throws AzureOpenAIService.AzureOpenAIServiceException if the call fails on every deployment tried
+     * @throws Deadline.DeadlineExceededException if the deadline expired before the call finished
+     */
+    public <T> T execute(long estimatedTokens, String requestId, Deadline deadline, DeploymentCall<T> call)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        deadline.check("LLM completion");
+        if (hedger == null && deadline.timeout() == null) {
+            return executeWithFailover(estimatedTokens, requestId, deadline, call, new HashSet<>());
+        }
+
+        CompletableFuture<T> result;
+        if (hedger == null) {
+            result = submit(() -> executeWithFailover(estimatedTokens, requestId, deadline, call, new HashSet<>()));
+        } else {
+            // Shared between the attempts, so the hedge avoids the deployment the original is waiting on
+            Set<PooledDeployment> inUse = ConcurrentHashMap.newKeySet();
+            result = hedger.execute(attempt -> {
+                if (attempt > 0) {
+                    logger.info("Completion for request {} is slow, sending a hedged request", requestId);
+                }
+                return submit(() -> executeWithFailover(estimatedTokens, requestId, deadline, call, inUse));
+            });
+        }
+        try {
+            return deadline.bound(result, "LLM completion").get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AzureOpenAIService.AzureOpenAIServiceException("Interrupted waiting for completion", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Deadline.DeadlineExceededException exceeded) {
+                result.cancel(true);
+                throw exceeded;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof AzureOpenAIService.AzureOpenAIServiceException serviceException) {
+                throw serviceException;
+            }
+            throw new AzureOpenAIService.AzureOpenAIServiceException("Completion failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Runs a completion on the best deployment not in the given set, failing over on retryable errors.
+     */
+    private <T> T executeWithFailover(long estimatedTokens, String requestId, Deadline deadline,
+                                      DeploymentCall<T> call, Set<PooledDeployment> inUse)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        int maxAttempts = Math.min(deployments.size(), 1 + routing.getMaxFailovers());
+        for (int attempt = 1; ; attempt++) {
+            deadline.check("LLM completion");
+            PooledDeployment deployment = select(inUse);
+            inUse.add(deployment);
+            try {
+                return callOn(deployment, estimatedTokens, requestId, deadline, call);
+            } catch (RuntimeException e) {
+                if (deadline.isExpired()) {
+                    throw deadline.exceeded("LLM completion");
+                }
+                if (!isRetryable(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("Completion for request {} failed on deployment {}, failing over: {}",
+                        requestId, deployment.getName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs a completion on a specific deployment, recording its latency and outcome.
+     */
+    public <T> T callOn(PooledDeployment deployment, long estimatedTokens, String requestId, Deadline deadline,
+                        DeploymentCall<T> call)
+            throws AzureOpenAIService.AzureOpenAIServiceException, Deadline.DeadlineExceededException {
+        deployment.begin();
+        long started = System.nanoTime();
+        String outcome = "failure";
+        try {
+            T result = deployment.getRateLimiter() != null
+                    ? deployment.getRateLimiter().execute(estimatedTokens, requestId, deadline, () -> call.call(deployment))
+                    : call.call(deployment);
+            deployment.recordSuccess(System.nanoTime() - started, routing.getLatencyDecay(), routing.getErrorDecay());
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            if (isCancellation(e) || deadline.isExpired()) {
+                outcome = "cancelled";
+            } else if (isRetryable(e) && deployment.recordFailure(routing, System.nanoTime())) {
+                Counter.builder("valuation.llm.deployment.ejections").tag("deployment", deployment.getName())
+                        .description("Times a deployment was ejected for its error rate").register(meterRegistry)
+                        .increment();
+                logger.warn("Ejecting deployment {} for {} (error rate {})", deployment.getName(),
+                        routing.getEjectionDuration(), String.format("%.2f", deployment.getErrorRate()));
+            }
+            throw e;
+        } finally {
+            deployment.end();
+            Timer.builder("valuation.llm.deployment.requests")
+                    .tag("deployment", deployment.getName())
+                    .tag("outcome", outcome)
+                    .description("Completion calls per deployment")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Picks the deployment with the lowest expected latency among those not yet tried and not ejected.
+     * When every candidate is ejected, the one whose ejection ends first is used.
+     */
+    public PooledDeployment select(Set<PooledDeployment> excluded) {
+        long now = System.nanoTime();
+        List<PooledDeployment> candidates = new ArrayList<>();
+        for (PooledDeployment deployment : deployments) {
+            if (!excluded.contains(deployment)) {
+                candidates.add(deployment);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates.addAll(deployments);
+        }
+
+        List<PooledDeployment> healthy = candidates.stream().filter(d -> !d.isEjected(now)).toList();
+        if (healthy.isEmpty()) {
+            return candidates.stream().min(Comparator.comparingLong(PooledDeployment::getEjectedUntilNanos)).orElseThrow();
+        }
+        return healthy.stream().min(Comparator.comparingDouble(PooledDeployment::score)).orElseThrow();
+    }
+
+    /**
+     * Runs a blocking call on the call executor; cancelling the returned future interrupts it.
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> running = callExecutor.submit(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            if (future.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    public void shutdown() {
+        callExecutor.shutdownNow();
+    }
+
+    public List<PooledDeployment> getDeployments() {
+        return deployments;
+    }
+
+    /**
+     * Identifies the models behind the pool, e.g. for cache keys.
+     */
+    public String describe() {
+        return deployments.stream().map(PooledDeployment::getDeploymentName).distinct().sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Throttling, 408/5xx responses and transport errors say something about the deployment; other
+     * 4xx responses (bad request, content filter) would fail the same way anywhere, and a cancelled
+     * or interrupted call was abandoned by the caller.
+     */
+    static boolean isRetryable(RuntimeException e) {
+        if (isCancellation(e)) {
+            return false;
+        }
+        if (e instanceof HttpResponseException httpError && httpError.getResponse() != null) {
+            int status = httpError.getResponse().getStatusCode();
+            return status == 408 || status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    /**
+     * Whether a call failed because its thread was interrupted or its work cancelled, e.g. when a hedge
+     * won or the deadline expired. Clients wrap the interrupt differently, so the causes are searched.
+     */
+    static boolean isCancellation(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CancellationException || cause instanceof InterruptedException
+                    || cause instanceof InterruptedIOException || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A completion call against the deployment chosen by the pool.
+     */
+    @FunctionalInterface
+    public interface DeploymentCall<T> {
+        T call(PooledDeployment deployment) throws AzureOpenAIService.AzureOpenAIServiceException;
+    }
+
+    /**
+     * One endpoint/deployment pair and its routing statistics.
+     */
+    public static class PooledDeployment {
+
+        private final String name;
+        private final OpenAIClient client;
+        private final String deploymentName;
+        private final double weight;
+        private final DeploymentRateLimiter rateLimiter;
+
+        private double latencyEwmaNanos;
+        private boolean hasLatencySample;
+        private double errorRate;
+        private int samples;
+        private int inFlight;
+        private long ejectedUntilNanos;
+
+        public PooledDeployment(String name, OpenAIClient client, String deploymentName, double weight,
+                                DeploymentRateLimiter rateLimiter) {
+            this.name = name;
+            this.client = client;
+            this.deploymentName = deploymentName;
+            this.weight = weight > 0 ? weight : 1.0;
+            this.rateLimiter = rateLimiter;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public OpenAIClient getClient() {
+            return client;
+        }
+
+        public String getDeploymentName() {
+            return deploymentName;
+        }
+
+        public DeploymentRateLimiter getRateLimiter() {
+            return rateLimiter;
+        }
+
+        public synchronized double getLatencyEwmaMillis() {
+            return latencyEwmaNanos / 1_000_000.0;
+        }
+
+        public synchronized double getErrorRate() {
+            return errorRate;
+        }
+
+        synchronized long getEjectedUntilNanos() {
+            return ejectedUntilNanos;
+        }
+
+        synchronized boolean isEjected(long now) {
+            return ejectedUntilNanos != 0 && now < ejectedUntilNanos;
+        }
+
+        /**
+         * Expected latency of the next call; lower is better. Unmeasured deployments score zero.
+         */
+        synchronized double score() {
+            if (!hasLatencySample) {
+                return 0.0;
+            }
+            return latencyEwmaNanos * (1 + inFlight) / weight;
+        }
+
+        synchronized void begin() {
+            inFlight++;
+        }
+
+        synchronized void end() {
+            inFlight--;
+        }
+
+        synchronized void recordSuccess(long latencyNanos, double latencyDecay, double errorDecay) {
+            latencyEwmaNanos = hasLatencySample
+                    ? latencyDecay * latencyNanos + (1 - latencyDecay) * latencyEwmaNanos
+                    : latencyNanos;
+            hasLatencySample = true;
+            errorRate = (1 - errorDecay) * errorRate;
+            samples++;
+        }
+
+        /**
+         * Records a failure and ejects the deployment when its error rate crosses the threshold.
+         *
+         * @return True if the deployment was ejected by this failure
+         */
+        synchronized boolean recordFailure(AzureOpenAIConfig.Routing routing, long now) {
+            if (ejectedUntilNanos != 0 && now >= ejectedUntilNanos) {
+                // Re-admitted after an ejection: start from a clean slate
+                ejectedUntilNanos = 0;
+                errorRate = 0;
+                samples = 0;
+            }
+            errorRate = routing.getErrorDecay() + (1 - routing.getErrorDecay()) * errorRate;
+            samples++;
+            if (ejectedUntilNanos == 0 && samples >= routing.getMinSamples()
+                    && errorRate >= routing.getErrorRateThreshold()) {
+                ejectedUntilNanos = now + routing.getEjectionDuration().toNanos();
+                return true;
+            }
+            return false;
+        }
+    }
+}
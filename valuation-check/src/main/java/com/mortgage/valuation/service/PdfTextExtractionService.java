@@ -1,18 +1,55 @@
 package com.mortgage.valuation.service;
 
-import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import com.azure.ai.documentintelligence.DocumentIntelligenceAsyncClient;
 import com.azure.ai.documentintelligence.models.AnalyzeDocumentRequest;
 import com.azure.ai.documentintelligence.models.AnalyzeResult;
 import com.azure.ai.documentintelligence.models.AnalyzeResultOperation;
 import com.azure.ai.documentintelligence.models.DocumentPage;
-import com.azure.core.util.polling.SyncPoller;
+import com.azure.core.util.polling.LongRunningOperationStatus;
+import com.azure.core.util.polling.PollerFlux;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mortgage.valuation.cache.LocalFileCache;
+import com.mortgage.valuation.concurrent.AsyncConcurrencyLimiter;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.RequestHedger;
+import com.mortgage.valuation.concurrent.SingleFlight;
+import com.mortgage.valuation.config.AzureDocumentIntelligenceConfig;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ExtractionResult;
+import com.mortgage.valuation.model.ValuationReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.io.File;
-import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 /**
@@ -23,11 +60,57 @@ public class PdfTextExtractionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfTextExtractionService.class);
 
-    private final DocumentIntelligenceClient documentIntelligenceClient;
+    // Recorded as the model of results that never reached the remote analyzer
+    private static final String TEXT_LAYER_MODEL_ID = "local-text-layer";
+
+    private final DocumentIntelligenceAsyncClient documentIntelligenceAsyncClient;
+    private final AzureDocumentIntelligenceConfig config;
+    private final ObjectMapper objectMapper;
+    private final LocalFileCache resultCache;
+    // Bounds analyze operations in flight across all requests, whole documents and shards alike
+    private final AsyncConcurrencyLimiter analyzeLimiter;
+    private final LocalTextLayerExtractor localTextLayerExtractor;
+    private final AnalyzerModelStrategy analyzerModelStrategy;
+    private final MeterRegistry meterRegistry;
+    private final Counter localPages;
+    private final Counter remotePagesCounter;
+    // One hedger per analyzer model, since their latencies differ widely
+    private final Map<String, RequestHedger> hedgers = new ConcurrentHashMap<>();
+    private final SingleFlight<String, ExtractionResult> extractions = new SingleFlight<>();
+    // The most a shared extraction may take; it stops earlier once no request is waiting for it
+    private final Duration extractionTimeout;
+    // Everything besides the PDF that decides its extraction, so results are looked up before any parsing
+    private final String configurationKey;
 
     @Autowired
-    public PdfTextExtractionService(DocumentIntelligenceClient documentIntelligenceClient) {
-        this.documentIntelligenceClient = documentIntelligenceClient;
+    public PdfTextExtractionService(DocumentIntelligenceAsyncClient documentIntelligenceAsyncClient,
+                                    AzureDocumentIntelligenceConfig config,
+                                    LocalTextLayerExtractor localTextLayerExtractor,
+                                    AnalyzerModelStrategy analyzerModelStrategy,
+                                    ValuationConfig valuationConfig,
+                                    MeterRegistry meterRegistry) {
+        this.documentIntelligenceAsyncClient = documentIntelligenceAsyncClient;
+        this.config = config;
+        this.extractionTimeout = Duration.ofSeconds(valuationConfig.getTimeoutSeconds());
+        this.objectMapper = new ObjectMapper();
+
+        AzureDocumentIntelligenceConfig.Cache cacheConfig = config.getCache();
+        this.resultCache = cacheConfig.isEnabled()
+                ? new LocalFileCache("extraction-results", Paths.get(cacheConfig.getDirectory()),
+                        cacheConfig.getMaxSizeMb() * 1024 * 1024, cacheConfig.getTtl(), meterRegistry)
+                : null;
+        this.analyzeLimiter = new AsyncConcurrencyLimiter(config.getSharding().getMaxConcurrentShards());
+        this.localTextLayerExtractor = localTextLayerExtractor;
+        this.analyzerModelStrategy = analyzerModelStrategy;
+        this.configurationKey = configurationKey(config, analyzerModelStrategy);
+        this.meterRegistry = meterRegistry;
+        this.localPages = Counter.builder("valuation.extraction.pages").tag("source", "text-layer")
+                .description("Report pages extracted").register(meterRegistry);
+        this.remotePagesCounter = Counter.builder("valuation.extraction.pages").tag("source", "analyzer")
+                .description("Report pages extracted").register(meterRegistry);
+        FunctionCounter.builder("valuation.extraction.coalesced", extractions, SingleFlight::getCoalesced)
+                .description("Extractions served by an identical report's extraction already in flight")
+                .register(meterRegistry);
     }
 
     /**
@@ -41,63 +124,515 @@ public class PdfTextExtractionService {
         if (pdfContent == null || pdfContent.length == 0) {
             throw new PdfTextExtractionException("PDF content is null or empty");
         }
+        try {
+            return extractAsync(ValuationReport.ofBytes(null, pdfContent), Deadline.none()).join().getContent();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PdfTextExtractionException extractionException) {
+                throw extractionException;
+            }
+            throw new PdfTextExtractionException("Failed to extract text from PDF: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
 
-        logger.info("Extracting text from PDF using Azure Document Intelligence: {} bytes", pdfContent.length);
+    /**
+     * Extracts the full text and per-page text of a report. The analyzer model is chosen per document by
+     * the {@link AnalyzerModelStrategy}. Results are cached by the SHA-256 of the PDF and the extraction
+     * configuration, so byte-identical resubmissions skip both the local parse and the remote analysis,
+     * and concurrent ones share a single analysis.
+     *
+     * The local text layer is read on the calling thread; the analyze operations are then started and
+     * polled on the client's event loop, so no thread is parked while Document Intelligence works. The
+     * report stays memory-mapped up to this point; it is copied onto the heap only here, because the
+     * analyze request carries the document inline.
+     *
+     * @param report The downloaded report; it must stay open until the returned future completes
+     * @param deadline Analyze operations still running when it expires are abandoned
+     * @return A future completing with the extraction result, or exceptionally with a
+     *         {@link PdfTextExtractionException}, or a {@link Deadline.DeadlineExceededException} once the
+     *         deadline has expired
+     */
+    public CompletableFuture<ExtractionResult> extractAsync(ValuationReport report, Deadline deadline) {
+        return startExtractionAsync(report, deadline).exceptionallyCompose(e -> CompletableFuture.failedFuture(
+                deadline.isExpired() ? deadline.exceeded("text extraction") : e));
+    }
 
-        if (!isPdf(pdfContent)) {
-            throw new PdfTextExtractionException("Provided content is not a valid PDF");
+    private CompletableFuture<ExtractionResult> startExtractionAsync(ValuationReport report, Deadline deadline) {
+        if (report == null || report.getSize() == 0) {
+            return CompletableFuture.failedFuture(new PdfTextExtractionException("PDF content is null or empty"));
         }
 
+        logger.info("Extracting text from PDF using Azure Document Intelligence: {} bytes", report.getSize());
+
+        if (!isPdf(report)) {
+            return CompletableFuture.failedFuture(new PdfTextExtractionException("Provided content is not a valid PDF"));
+        }
+
+        String extractionKey = LocalFileCache.keyOf(report.getContentHash(), configurationKey);
+        String cacheKey = resultCache != null ? extractionKey : null;
+        if (cacheKey != null) {
+            Optional<ExtractionResult> cached = readCachedResult(cacheKey);
+            if (cached.isPresent()) {
+                logger.info("Using cached {} extraction result for PDF {} ({} characters)", cached.get().getModelId(),
+                        report.getContentHash(), cached.get().getContent().length());
+                return CompletableFuture.completedFuture(cached.get());
+            }
+        }
+
+        // A byte-identical report already being extracted (e.g. a retried request) shares that extraction;
+        // the report is only read while the extraction starts, so a follower's copy can be closed early
+        return extractions.executeAsync(extractionKey, deadline, extractionTimeout, "text extraction",
+                shared -> startExtraction(report, cacheKey, shared));
+    }
+
+    private CompletableFuture<ExtractionResult> startExtraction(ValuationReport report, String cacheKey,
+                                                                Deadline deadline) {
+        CompletableFuture<ExtractionResult> extraction;
         try {
-            SyncPoller<AnalyzeResultOperation, AnalyzeResultOperation> analyzeReceiptPoller =
-                    documentIntelligenceClient.beginAnalyzeDocument("prebuilt-receipt",
-                            null,
-                            null,
-                            null,
-                            null,
-                            null,
-                            null,
-                            new AnalyzeDocumentRequest().setBase64Source(pdfContent));
-
-            AnalyzeResult analyzeResult = analyzeReceiptPoller.getFinalResult().getAnalyzeResult();
+            extraction = analyze(report, deadline);
+        } catch (RuntimeException e) {
+            extraction = CompletableFuture.failedFuture(e);
+        }
+
+        return extraction
+                .thenApply(result -> {
+                    if (cacheKey != null) {
+                        writeCachedResult(cacheKey, result);
+                    }
+                    return result;
+                })
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof PdfTextExtractionException) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    logger.error("Error during PDF text extraction with Azure Document Intelligence: {}",
+                            cause.getMessage(), cause);
+                    return CompletableFuture.failedFuture(new PdfTextExtractionException(
+                            "Failed to extract text from PDF: " + cause.getMessage(), cause));
+                });
+    }
+
+    /**
+     * Reads the local text layer, selects the analyzer model and starts the remote analysis of the pages
+     * that need it. The result records the chosen model, so cached results carry it too.
+     */
+    private CompletableFuture<ExtractionResult> analyze(ValuationReport report, Deadline deadline) {
+        Optional<LocalTextLayerExtractor.TextLayer> textLayer = config.getLocalTextLayer().isActive()
+                ? localTextLayerExtractor.read(report)
+                : Optional.empty();
+        List<Integer> remotePages = textLayer.map(LocalTextLayerExtractor.TextLayer::unusablePages).orElse(null);
+        int pageCount = textLayer.map(LocalTextLayerExtractor.TextLayer::pageCount).orElseGet(() -> countPages(report));
+
+        String modelId = remotePages != null && remotePages.isEmpty()
+                ? TEXT_LAYER_MODEL_ID
+                : selectModel(report, pageCount, remotePages, textLayer);
+
+        if (textLayer.isEmpty()) {
+            return analyzeDocumentAsync(report, modelId, allPages(pageCount), pageCount, deadline)
+                    .thenApply(analyzeResults -> toExtractionResult(modelId, analyzeResults));
+        } else {
+            localPages.increment(textLayer.get().usablePageCount());
+            remotePagesCounter.increment(remotePages.size());
+            if (remotePages.isEmpty()) {
+                logger.info("All {} pages have a usable text layer, skipping remote analysis", textLayer.get().pageCount());
+                try {
+                    return CompletableFuture.completedFuture(
+                            mergeWithTextLayer(TEXT_LAYER_MODEL_ID, textLayer.get(), List.of()));
+                } catch (CompletionException e) {
+                    return CompletableFuture.failedFuture(e.getCause());
+                }
+            }
+            logger.info("Sending {} of {} pages without a usable text layer to remote analysis",
+                    remotePages.size(), textLayer.get().pageCount());
+            return analyzeDocumentAsync(report, modelId, remotePages, pageCount, deadline)
+                    .thenApply(analyzeResults -> mergeWithTextLayer(modelId, textLayer.get(), analyzeResults));
+        }
+    }
+
+    /**
+     * Analyzes a report, splitting it into page-range shards that run concurrently when it is longer
+     * than the configured page threshold.
+     *
+     * Every shard sends the same document with a different page range. Shards are bounded per request
+     * and across all requests, and their results are returned in page order.
+     *
+     * @param pageNumbers The pages to analyze; empty when the page count is unknown
+     * @param pageCount Pages in the document, or -1 if unknown
+     */
+    private CompletableFuture<List<AnalyzeResult>> analyzeDocumentAsync(ValuationReport report, String modelId,
+                                                                      List<Integer> pageNumbers, int pageCount,
+                                                                      Deadline deadline) {
+        byte[] pdfContent = report.toByteArray();
+        List<String> pageRanges = shardPageRanges(pageNumbers);
+        if (pageRanges.isEmpty()) {
+            // Only send a page range when analyzing part of the document
+            String pageRange = pageNumbers.isEmpty() || pageNumbers.size() == pageCount
+                    ? null
+                    : toPageRange(pageNumbers);
+            return analyzeLimiter.submit(() -> analyzeAsync(modelId, pageRange, pdfContent, deadline),
+                            deadline, "text extraction")
+                    .thenApply(List::of);
+        }
+
+        logger.info("Analyzing PDF as {} page-range shards: {}", pageRanges.size(), pageRanges);
+        AsyncConcurrencyLimiter requestLimiter =
+                new AsyncConcurrencyLimiter(config.getSharding().getMaxConcurrentShardsPerRequest());
+        List<CompletableFuture<AnalyzeResult>> shards = pageRanges.stream()
+                .map(pageRange -> requestLimiter.submit(() ->
+                        analyzeLimiter.submit(() -> analyzeAsync(modelId, pageRange, pdfContent, deadline),
+                                deadline, "text extraction"), deadline, "text extraction"))
+                .toList();
+
+        return CompletableFuture.allOf(shards.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> shards.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Splits the pages to analyze into shard page ranges, or returns an empty list when they should be
+     * analyzed in one request.
+     */
+    List<String> shardPageRanges(List<Integer> pages) {
+        AzureDocumentIntelligenceConfig.Sharding sharding = config.getSharding();
+        if (!sharding.isEnabled() || pages.size() <= sharding.getPageThreshold()) {
+            return List.of();
+        }
+        List<String> ranges = new ArrayList<>();
+        for (int from = 0; from < pages.size(); from += sharding.getPagesPerShard()) {
+            int to = Math.min(from + sharding.getPagesPerShard(), pages.size());
+            ranges.add(toPageRange(pages.subList(from, to)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Formats ascending page numbers as a page range parameter, e.g. {@code 1-3,5,8-9}.
+     */
+    static String toPageRange(List<Integer> pages) {
+        StringJoiner ranges = new StringJoiner(",");
+        int index = 0;
+        while (index < pages.size()) {
+            int first = pages.get(index);
+            int last = first;
+            while (index + 1 < pages.size() && pages.get(index + 1) == last + 1) {
+                last = pages.get(++index);
+            }
+            ranges.add(first == last ? String.valueOf(first) : first + "-" + last);
+            index++;
+        }
+        return ranges.toString();
+    }
+
+    private static List<Integer> allPages(int pageCount) {
+        return IntStream.rangeClosed(1, pageCount).boxed().toList();
+    }
 
+    /**
+     * Identifies the configuration that, with the PDF content, determines the model choice and the text
+     * layer split, and therefore the extraction result.
+     */
+    static String configurationKey(AzureDocumentIntelligenceConfig config, AnalyzerModelStrategy strategy) {
+        AzureDocumentIntelligenceConfig.ModelSelection selection = config.getModelSelection();
+        AzureDocumentIntelligenceConfig.LocalTextLayer textLayer = config.getLocalTextLayer();
+        return String.join("|",
+                strategy.getClass().getName(),
+                config.getModelId(),
+                selection.isEnabled()
+                        ? String.join(",", selection.getReadModelId(), selection.getLayoutModelId(),
+                                String.valueOf(selection.getLayoutMaxPages()),
+                                String.valueOf(selection.getLayoutMaxFileSizeMb()),
+                                String.valueOf(selection.getReadMinTextLayerFraction()))
+                        : "fixed-model",
+                textLayer.isActive()
+                        ? "text-layer," + textLayer.getMinCharsPerPage() + "," + textLayer.getMinQualityScore()
+                        : "remote");
+    }
+
+    /**
+     * Asks the strategy for the analyzer model and records the choice.
+     */
+    private String selectModel(ValuationReport report, int pageCount, List<Integer> remotePages,
+                               Optional<LocalTextLayerExtractor.TextLayer> textLayer) {
+        AnalyzerModelStrategy.DocumentSignals signals = new AnalyzerModelStrategy.DocumentSignals(
+                pageCount,
+                remotePages != null ? remotePages.size() : pageCount,
+                textLayer.map(layer -> (int) layer.usablePageCount()).orElse(0),
+                report.getSize());
+        String modelId = analyzerModelStrategy.selectModel(signals);
+        logger.info("Selected analyzer model {} for {}", modelId, signals);
+        Counter.builder("valuation.extraction.model.selected").tag("model", modelId)
+                .description("Documents sent to each analyzer model").register(meterRegistry).increment();
+        return modelId;
+    }
+
+    /**
+     * Counts the pages of a report locally, reading straight from its buffer.
+     *
+     * @return The page count, or -1 if the document cannot be parsed locally
+     */
+    private int countPages(ValuationReport report) {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(report.getContent()))) {
+            return document.getNumberOfPages();
+        } catch (IOException e) {
+            logger.warn("Could not count PDF pages locally, analyzing as a single document: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Runs an analyze operation, hedged with a second request when enabled and the first is slow.
+     */
+    private CompletableFuture<AnalyzeResult> analyzeAsync(String modelId, String pages, byte[] pdfContent,
+                                                          Deadline deadline) {
+        if (!config.getHedging().isEnabled()) {
+            return startAnalyze(modelId, pages, pdfContent, deadline);
+        }
+        return hedger(modelId).execute(attempt -> {
+            if (attempt > 0) {
+                logger.info("Analyze operation for pages {} with model {} is slow, sending a hedged request",
+                        pages != null ? pages : "all", modelId);
+            }
+            return startAnalyze(modelId, pages, pdfContent, deadline);
+        });
+    }
+
+    /**
+     * Starts an analyze operation and polls it to completion without blocking.
+     *
+     * The poll interval starts at the configured initial delay and grows by the multiplier after each
+     * unfinished poll, up to the maximum interval. The poller uses a Retry-After header instead of the
+     * interval whenever the service returns one.
+     *
+     * @param modelId The analyzer model
+     * @param pages The page range to analyze, or null for the whole document
+     * @param pdfContent The PDF content
+     * @param deadline Polling stops when it expires
+     */
+    private CompletableFuture<AnalyzeResult> startAnalyze(String modelId, String pages, byte[] pdfContent,
+                                                          Deadline deadline) {
+        AzureDocumentIntelligenceConfig.Polling polling = config.getPolling();
+        PollerFlux<AnalyzeResultOperation, AnalyzeResultOperation> poller =
+                documentIntelligenceAsyncClient.beginAnalyzeDocument(modelId,
+                        pages,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        new AnalyzeDocumentRequest().setBase64Source(pdfContent));
+        poller.setPollInterval(polling.getInitialDelay());
+
+        long started = System.nanoTime();
+        AtomicReference<Duration> interval = new AtomicReference<>(polling.getInitialDelay());
+        Mono<AnalyzeResult> analysis = poller
+                .doOnNext(response -> {
+                    if (!response.getStatus().isComplete()) {
+                        poller.setPollInterval(interval.updateAndGet(current -> nextPollInterval(current, polling)));
+                    }
+                })
+                .last()
+                .flatMap(response -> {
+                    if (response.getStatus() != LongRunningOperationStatus.SUCCESSFULLY_COMPLETED) {
+                        return Mono.error(new PdfTextExtractionException(
+                                "Document analysis finished with status " + response.getStatus()));
+                    }
+                    return response.getFinalResult();
+                })
+                .map(AnalyzeResultOperation::getAnalyzeResult)
+                // Cancels the poller's subscription, so no further polls are sent
+                .timeout(Mono.fromFuture(deadline.onExpiry().thenApply(expired -> Boolean.TRUE)));
+        return subscribe(analysis, (analyzeResult, error) -> recordAnalysis(modelId, analyzeResult, error, started));
+    }
+
+    /**
+     * Subscribes to an analysis, calling the action when it completes. Cancelling the returned future
+     * (e.g. for a losing hedge) cancels the subscription, so the poller stops polling.
+     */
+    static <T> CompletableFuture<T> subscribe(Mono<T> analysis, BiConsumer<? super T, ? super Throwable> action) {
+        CompletableFuture<T> subscription = analysis.toFuture();
+        CompletableFuture<T> result = subscription.whenComplete(action);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                subscription.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private RequestHedger hedger(String modelId) {
+        return hedgers.computeIfAbsent(modelId, model -> {
+            AzureDocumentIntelligenceConfig.Hedging hedging = config.getHedging();
+            RequestHedger hedger = new RequestHedger(hedging.getPercentile(), hedging.getMinDelay(),
+                    hedging.getBudgetPercent() / 100, hedging.getWindowSize(), hedging.getMinSamples());
+            FunctionCounter.builder("valuation.extraction.hedges", hedger, RequestHedger::getHedgesIssued)
+                    .tag("model", model).tag("result", "issued")
+                    .description("Hedged analyze requests").register(meterRegistry);
+            FunctionCounter.builder("valuation.extraction.hedges", hedger, RequestHedger::getHedgesWon)
+                    .tag("model", model).tag("result", "won")
+                    .description("Hedged analyze requests").register(meterRegistry);
+            return hedger;
+        });
+    }
+
+    /**
+     * Records the latency and page throughput of one analyze operation, per model.
+     */
+    private void recordAnalysis(String modelId, AnalyzeResult analyzeResult, Throwable error, long startedNanos) {
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        Timer.builder("valuation.extraction.analyze")
+                .tag("model", modelId)
+                .tag("outcome", error == null ? "success" : "failure")
+                .description("Duration of remote analyze operations, including polling")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (analyzeResult != null && analyzeResult.getPages() != null && elapsedNanos > 0) {
+            double pagesPerSecond = analyzeResult.getPages().size() / (elapsedNanos / 1_000_000_000.0);
+            DistributionSummary.builder("valuation.extraction.analyze.throughput")
+                    .tag("model", modelId)
+                    .baseUnit("pages/s")
+                    .description("Pages analyzed per second by each analyzer model")
+                    .register(meterRegistry)
+                    .record(pagesPerSecond);
+        }
+    }
+
+    private static Duration nextPollInterval(Duration current, AzureDocumentIntelligenceConfig.Polling polling) {
+        long nextMillis = Math.round(current.toMillis() * polling.getMultiplier());
+        return Duration.ofMillis(Math.min(nextMillis, polling.getMaxInterval().toMillis()));
+    }
+
+    /**
+     * Merges the analyze results of a document's shards, in page order, into the extracted content
+     * and per-page text.
+     */
+    ExtractionResult toExtractionResult(String modelId, List<AnalyzeResult> analyzeResults) {
+        StringBuilder contentBuilder = new StringBuilder();
+        List<String> pages = new ArrayList<>();
+
+        for (AnalyzeResult analyzeResult : analyzeResults) {
             if (analyzeResult == null) {
                 logger.error("Analyze result is null");
-                throw new PdfTextExtractionException("Failed to analyze document - no result returned");
+                throw new CompletionException(
+                        new PdfTextExtractionException("Failed to analyze document - no result returned"));
             }
 
+            List<String> shardPages = pageTexts(analyzeResult);
+            pages.addAll(shardPages);
+
             // Primary content (may be null for some models/versions)
-            String content = analyzeResult.getContent();
+            String shardContent = analyzeResult.getContent();
 
             // Fallback: if content is empty, aggregate page lines into a single string
-            if (content == null || content.trim().isEmpty()) {
-                StringBuilder sb = new StringBuilder();
-                if (analyzeResult.getPages() != null) {
-                    for (DocumentPage page : analyzeResult.getPages()) {
-                        if (page.getLines() != null) {
-                            page.getLines().forEach(line -> {
-                                if (line.getContent() != null) {
-                                    sb.append(line.getContent()).append('\n');
-                                }
-                            });
-                        }
-                    }
+            if (shardContent == null || shardContent.trim().isEmpty()) {
+                shardContent = String.join("\n", shardPages);
+            }
+
+            if (!shardContent.trim().isEmpty()) {
+                if (contentBuilder.length() > 0) {
+                    contentBuilder.append('\n');
                 }
-                content = sb.toString().trim();
+                contentBuilder.append(shardContent.trim());
             }
+        }
+
+        String content = contentBuilder.toString();
+        if (content.isEmpty()) {
+            logger.warn("No text content extracted from PDF");
+            throw new CompletionException(new PdfTextExtractionException("No text content found in PDF"));
+        }
 
-            if (content == null || content.isEmpty()) {
-                logger.warn("No text content extracted from PDF");
-                throw new PdfTextExtractionException("No text content found in PDF");
+        logger.info("Successfully extracted text: {} characters", content.length());
+        return new ExtractionResult(modelId, content, pages);
+    }
+
+    /**
+     * Combines the local text layer with the remote results for the pages that lacked one, page by page.
+     */
+    ExtractionResult mergeWithTextLayer(String modelId, LocalTextLayerExtractor.TextLayer textLayer,
+                                        List<AnalyzeResult> analyzeResults) {
+        Map<Integer, String> remotePages = new TreeMap<>();
+        for (AnalyzeResult analyzeResult : analyzeResults) {
+            if (analyzeResult != null) {
+                remotePages.putAll(pageTextsByNumber(analyzeResult));
+            }
+        }
+
+        List<String> pages = new ArrayList<>(textLayer.pageCount());
+        for (LocalTextLayerExtractor.PageText page : textLayer.pages()) {
+            pages.add(page.usable() ? page.text() : remotePages.getOrDefault(page.pageNumber(), ""));
+        }
+
+        String content = pages.stream().filter(text -> !text.isEmpty()).collect(Collectors.joining("\n"));
+        if (content.isEmpty()) {
+            logger.warn("No text content extracted from PDF");
+            throw new CompletionException(new PdfTextExtractionException("No text content found in PDF"));
+        }
+
+        logger.info("Successfully extracted text: {} characters", content.length());
+        return new ExtractionResult(modelId, content, pages);
+    }
+
+    /**
+     * Builds the text of each page, in page order, from its lines.
+     */
+    private List<String> pageTexts(AnalyzeResult analyzeResult) {
+        return new ArrayList<>(pageTextsByNumber(analyzeResult).values());
+    }
+
+    private Map<Integer, String> pageTextsByNumber(AnalyzeResult analyzeResult) {
+        Map<Integer, String> pages = new TreeMap<>();
+        if (analyzeResult.getPages() == null) {
+            return pages;
+        }
+        for (DocumentPage page : analyzeResult.getPages()) {
+            StringBuilder sb = new StringBuilder();
+            if (page.getLines() != null) {
+                page.getLines().forEach(line -> {
+                    if (line.getContent() != null) {
+                        sb.append(line.getContent()).append('\n');
+                    }
+                });
             }
+            pages.put(page.getPageNumber(), sb.toString().trim());
+        }
+        return pages;
+    }
 
-            logger.info("Successfully extracted text: {} characters", content.length());
-            return content.trim();
+    private Optional<ExtractionResult> readCachedResult(String cacheKey) {
+        Optional<Path> cached = resultCache.get(cacheKey);
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(cached.get().toFile(), ExtractionResult.class));
+        } catch (IOException e) {
+            logger.warn("Discarding unreadable cached extraction result {}: {}", cacheKey, e.getMessage());
+            resultCache.invalidate(cacheKey);
+            return Optional.empty();
+        }
+    }
+
+    private void writeCachedResult(String cacheKey, ExtractionResult result) {
+        try {
+            resultCache.put(cacheKey, objectMapper.writeValueAsBytes(result));
+        } catch (IOException e) {
+            logger.warn("Failed to cache extraction result {}: {}", cacheKey, e.getMessage());
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Error during PDF text extraction with Azure Document Intelligence: {}", e.getMessage(), e);
-            throw new PdfTextExtractionException("Failed to extract text from PDF: " + e.getMessage(), e);
+    /**
+     * Validates if the downloaded report is a valid PDF without copying its content.
+     *
+     * @param report The downloaded report
+     * @return true if valid PDF, false otherwise
+     */
+    public boolean isPdf(ValuationReport report) {
+        if (report == null || report.getSize() < 4) {
+            return false;
         }
+        ByteBuffer content = report.getContent();
+        // PDF files start with "%PDF"
+        return content.get(0) == 0x25 && content.get(1) == 0x50 && content.get(2) == 0x44 && content.get(3) == 0x46;
     }
 
     /**
@@ -119,6 +654,9 @@ public class PdfTextExtractionService {
      * Custom exception for PDF text extraction errors.
      */
     public static class PdfTextExtractionException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
         public PdfTextExtractionException(String message) {
             super(message);
         }
@@ -127,4 +665,4 @@ public class PdfTextExtractionService {
             super(message, cause);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,262 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ExtractionResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces extracted report text to what the LLM needs before the prompt is built.
+ *
+ * Lines repeated at the top or bottom of most pages (running headers, footers, page numbers) are
+ * kept only where they first appear, since a running header often carries the property address or
+ * reference; the text is split into sections at detected headings, and boilerplate sections such as
+ * terms and conditions or valuer disclaimers are dropped. Text before the first heading is always kept.
+ */
+@Service
+public class ReportTextReducer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTextReducer.class);
+
+    // Rough average for English text with OpenAI tokenizers
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private static final Pattern NUMBERED_HEADING = Pattern.compile(
+            "^(?:(?i:section)\\s+\\d{1,2}|\\d{1,2}(?:\\.\\d{1,2})*[.)]|\\d{1,2}\\.\\d{1,2})\\s+[A-Z][^.;]*$");
+    private static final Pattern CAPITALISED_WORD = Pattern.compile("[A-Z]{4,}");
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ValuationConfig.TextReduction config;
+    private final DistributionSummary charactersSaved;
+    private final DistributionSummary tokensSaved;
+    private final DistributionSummary reductionRatio;
+
+    @Autowired
+    public ReportTextReducer(ValuationConfig valuationConfig, MeterRegistry meterRegistry) {
+        this.config = valuationConfig.getTextReduction();
+        this.charactersSaved = DistributionSummary.builder("valuation.prompt.reduction.characters")
+                .baseUnit("characters").description("Characters of extracted text removed before the LLM call")
+                .register(meterRegistry);
+        this.tokensSaved = DistributionSummary.builder("valuation.prompt.reduction.tokens")
+                .baseUnit("tokens").description("Estimated prompt tokens saved by text reduction")
+                .register(meterRegistry);
+        this.reductionRatio = DistributionSummary.builder("valuation.prompt.reduction.ratio")
+                .description("Share of extracted text removed before the LLM call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reduces the extracted text of a report.
+     *
+     * @param extraction The extraction result, with per-page text
+     * @param requestId The request ID for logging
+     * @return The reduced text, or the original text if reduction is disabled or would leave nothing
+     */
+    public ReducedText reduce(ExtractionResult extraction, String requestId) {
+        String original = extraction.getContent() != null ? extraction.getContent() : "";
+        if (!config.isEnabled()) {
+            return new ReducedText(original, original.length(), List.of());
+        }
+
+        List<List<String>> pages = splitPages(extraction, original);
+        Set<String> repeated = stripRepeatedHeadersAndFooters(pages);
+
+        List<String> droppedSections = new ArrayList<>();
+        StringBuilder reduced = new StringBuilder();
+        for (Section section : detectSections(pages)) {
+            if (!keep(section)) {
+                droppedSections.add(section.heading());
+                continue;
+            }
+            for (String line : section.lines()) {
+                reduced.append(line).append('\n');
+            }
+        }
+
+        String text = reduced.toString().trim();
+        if (text.isEmpty()) {
+            logger.warn("Text reduction left no content for request {}, using the full extracted text", requestId);
+            return new ReducedText(original, original.length(), List.of());
+        }
+
+        int saved = Math.max(0, original.length() - text.length());
+        charactersSaved.record(saved);
+        tokensSaved.record((double) saved / CHARS_PER_TOKEN);
+        if (!original.isEmpty()) {
+            reductionRatio.record((double) saved / original.length());
+        }
+        logger.info("Reduced extracted text for request {} from {} to {} characters (~{} tokens saved); "
+                        + "kept {} repeated header/footer lines once and dropped sections {}",
+                requestId, original.length(), text.length(), saved / CHARS_PER_TOKEN, repeated.size(), droppedSections);
+        return new ReducedText(text, original.length(), droppedSections);
+    }
+
+    private static List<List<String>> splitPages(ExtractionResult extraction, String content) {
+        List<String> pageTexts = extraction.getPages() != null && !extraction.getPages().isEmpty()
+                ? extraction.getPages()
+                : List.of(content);
+        List<List<String>> pages = new ArrayList<>(pageTexts.size());
+        for (String pageText : pageTexts) {
+            pages.add(new ArrayList<>(Arrays.stream(pageText.split("\\R"))
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty())
+                    .toList()));
+        }
+        return pages;
+    }
+
+    /**
+     * Removes all but the first occurrence of lines that appear among the first or last lines of enough
+     * pages, comparing them with digits masked so that "Page 3 of 12" matches "Page 4 of 12".
+     *
+     * @return The normalised repeated lines
+     */
+    private Set<String> stripRepeatedHeadersAndFooters(List<List<String>> pages) {
+        if (pages.size() < 2) {
+            return Set.of();
+        }
+
+        Map<String, Integer> pageCounts = new HashMap<>();
+        for (List<String> page : pages) {
+            Set<String> edgeLines = new HashSet<>();
+            for (int index : edgeIndexes(page)) {
+                edgeLines.add(normalise(page.get(index)));
+            }
+            edgeLines.forEach(line -> pageCounts.merge(line, 1, Integer::sum));
+        }
+
+        int minPages = Math.max(2, (int) Math.ceil(config.getHeaderFooterMinPageFraction() * pages.size()));
+        Set<String> repeated = pageCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minPages)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        if (repeated.isEmpty()) {
+            return repeated;
+        }
+
+        Set<String> kept = new HashSet<>();
+        for (List<String> page : pages) {
+            List<Integer> duplicates = new ArrayList<>();
+            for (int index : edgeIndexes(page)) {
+                String line = normalise(page.get(index));
+                if (repeated.contains(line) && !kept.add(line)) {
+                    duplicates.add(index);
+                }
+            }
+            // Remove from the end so earlier indexes stay valid
+            for (int i = duplicates.size() - 1; i >= 0; i--) {
+                page.remove((int) duplicates.get(i));
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Indexes of the first and last configured number of lines of a page, ascending and distinct.
+     */
+    private List<Integer> edgeIndexes(List<String> page) {
+        int edge = Math.min(config.getHeaderFooterLines(), page.size());
+        Set<Integer> indexes = new TreeSet<>();
+        for (int i = 0; i < edge; i++) {
+            indexes.add(i);
+            indexes.add(page.size() - 1 - i);
+        }
+        return new ArrayList<>(indexes);
+    }
+
+    private List<Section> detectSections(List<List<String>> pages) {
+        List<Section> sections = new ArrayList<>();
+        Section current = new Section(null, new ArrayList<>());
+        for (List<String> page : pages) {
+            for (String line : page) {
+                if (isHeading(line)) {
+                    sections.add(current);
+                    current = new Section(line, new ArrayList<>());
+                }
+                current.lines().add(line);
+            }
+        }
+        sections.add(current);
+        return sections;
+    }
+
+    /**
+     * Treats short numbered lines ("4. Tenure", "Section 2 Property") and short all-capitals lines of
+     * at least two words as headings. Lines with a value after a colon are label/value pairs, not headings.
+     */
+    private boolean isHeading(String line) {
+        if (line.length() > config.getMaxHeadingLength()) {
+            return false;
+        }
+        int colon = line.indexOf(':');
+        if (colon >= 0 && colon < line.length() - 1) {
+            return false;
+        }
+        if (NUMBERED_HEADING.matcher(line).matches()) {
+            return true;
+        }
+
+        long letters = line.chars().filter(Character::isLetter).count();
+        long upperCase = line.chars().filter(Character::isUpperCase).count();
+        return letters > 0
+                && (double) upperCase / letters >= 0.8
+                && line.trim().split("\\s+").length >= 2
+                && CAPITALISED_WORD.matcher(line).find();
+    }
+
+    /**
+     * Keeps the preamble and relevant sections, drops boilerplate. A heading matching both lists is kept.
+     */
+    private boolean keep(Section section) {
+        if (section.heading() == null) {
+            return true;
+        }
+        String heading = section.heading().toLowerCase(Locale.ROOT);
+        if (matchesAny(heading, config.getRelevantHeadings())) {
+            return true;
+        }
+        if (matchesAny(heading, config.getBoilerplateHeadings())) {
+            return false;
+        }
+        return config.isKeepUnclassifiedSections();
+    }
+
+    private static boolean matchesAny(String heading, List<String> keywords) {
+        return keywords.stream().anyMatch(keyword -> heading.contains(keyword.toLowerCase(Locale.ROOT)));
+    }
+
+    private static String normalise(String line) {
+        String masked = DIGITS.matcher(line.toLowerCase(Locale.ROOT)).replaceAll("#");
+        return WHITESPACE.matcher(masked).replaceAll(" ").trim();
+    }
+
+    private record Section(String heading, List<String> lines) {
+    }
+
+    /**
+     * Text to send to the LLM.
+     *
+     * @param text The reduced text
+     * @param originalCharacters Length of the extracted text before reduction
+     * @param droppedSections Headings of the sections that were removed
+     */
+    public record ReducedText(String text, int originalCharacters, List<String> droppedSections) {
+    }
+}
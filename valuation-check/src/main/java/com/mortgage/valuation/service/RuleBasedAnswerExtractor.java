@@ -0,0 +1,222 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts answers that follow rigid patterns (postcode, dates, valuation figures, RICS number)
+ * directly from the report text, so the LLM only has to answer the remaining questions.
+ *
+ * Each rule looks for a value pattern within a short window after one of its labels. Confidence
+ * drops with the distance from the label, and sharply when the report contains conflicting values.
+ */
+@Component
+public class RuleBasedAnswerExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleBasedAnswerExtractor.class);
+
+    private static final double BASE_CONFIDENCE = 0.98;
+    private static final double DISTANCE_PENALTY = 0.15;
+    private static final double CONFLICT_FACTOR = 0.6;
+
+    private static final DateTimeFormatter ANSWER_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Map<String, Integer> MONTHS = months();
+
+    private static final Pattern POSTCODE = Pattern.compile(
+            "\\b([A-Z]{1,2}[0-9][A-Z0-9]?)\\s*([0-9][A-Z]{2})\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMERIC_DATE = Pattern.compile("\\b(\\d{1,2})[/.-](\\d{1,2})[/.-](\\d{4})\\b");
+    private static final Pattern WRITTEN_DATE = Pattern.compile(
+            "\\b(\\d{1,2})(?:st|nd|rd|th)?\\s+([A-Za-z]{3,9})\\.?,?\\s+(\\d{4})\\b");
+    private static final Pattern AMOUNT = Pattern.compile("\u00a3\\s?(\\d{1,3}(?:,\\d{3})+|\\d+)(\\.\\d{1,2})?");
+    private static final Pattern RICS_NUMBER = Pattern.compile("\\b(\\d{6,7})\\b");
+
+    private final ValuationConfig.RuleExtraction config;
+    private final List<FieldRule> rules;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public RuleBasedAnswerExtractor(ValuationConfig valuationConfig, MeterRegistry meterRegistry) {
+        this.config = valuationConfig.getRuleExtraction();
+        this.meterRegistry = meterRegistry;
+        this.rules = List.of(
+                new FieldRule("VR4B_PostCode", "text",
+                        label("post\\s?code"), POSTCODE,
+                        matcher -> matcher.group(1).toUpperCase(Locale.ROOT) + " " + matcher.group(2).toUpperCase(Locale.ROOT)),
+                new FieldRule("VR4B_InspectionDate", "date",
+                        label("date\\s+of\\s+inspection|inspection\\s+date|date\\s+inspected"), null,
+                        null),
+                new FieldRule("VR4B_ReportDate", "date",
+                        label("date\\s+of\\s+report|report\\s+date"), null,
+                        null),
+                new FieldRule("VR4B_MarketValue", "decimal",
+                        label("(?:present\\s+|current\\s+)?market\\s+value(?!\\s+(?:after|on\\s+completion|following|assuming))"),
+                        AMOUNT, RuleBasedAnswerExtractor::toDecimal),
+                new FieldRule("VR4B_ReinstatementCost", "decimal",
+                        label("reinstatement\\s+(?:cost|value)|insurance\\s+reinstatement"),
+                        AMOUNT, RuleBasedAnswerExtractor::toDecimal),
+                new FieldRule("VR4B_RicsNumber", "text",
+                        label("rics\\s+(?:membership\\s+|member\\s+)?(?:number|no)"),
+                        RICS_NUMBER, matcher -> matcher.group(1)));
+    }
+
+    /**
+     * Extracts the answers that meet the configured confidence threshold.
+     *
+     * @param text The (reduced) report text
+     * @param requestId The request ID for logging
+     * @return Answers by question id, in rule order
+     */
+    public Map<String, ValuationResponse.Answer> extract(String text, String requestId) {
+        Map<String, ValuationResponse.Answer> answers = new LinkedHashMap<>();
+        if (!config.isEnabled() || text == null || text.isEmpty()) {
+            return answers;
+        }
+
+        for (FieldRule rule : rules) {
+            Candidate candidate = bestCandidate(rule, text);
+            if (candidate == null) {
+                continue;
+            }
+            if (candidate.confidence() < config.getMinConfidence()) {
+                logger.debug("Rule for {} found {} with confidence {} below threshold, leaving it to the LLM",
+                        rule.questionId(), candidate.value(), String.format("%.2f", candidate.confidence()));
+                continue;
+            }
+
+            ValuationResponse.Answer answer = new ValuationResponse.Answer();
+            answer.setQuestionId(rule.questionId());
+            answer.setAnswerType(rule.answerType());
+            answer.setValue(candidate.value());
+            answers.put(rule.questionId(), answer);
+            Counter.builder("valuation.rules.resolved").tag("questionId", rule.questionId())
+                    .description("Answers filled by the rule-based extractor").register(meterRegistry).increment();
+        }
+
+        logger.info("Rule-based extractor resolved {} of {} rule fields for request {}: {}",
+                answers.size(), rules.size(), requestId, answers.keySet());
+        return answers;
+    }
+
+    /**
+     * Finds the value closest to a label. Distinct values found after different labels lower the confidence.
+     */
+    private Candidate bestCandidate(FieldRule rule, String text) {
+        Candidate best = null;
+        Set<Object> distinctValues = new LinkedHashSet<>();
+        Matcher labelMatcher = rule.label().matcher(text);
+        while (labelMatcher.find()) {
+            int from = labelMatcher.end();
+            int to = Math.min(text.length(), from + config.getLabelWindow());
+            Candidate candidate = rule.valuePattern() != null
+                    ? firstValue(rule, text, from, to)
+                    : firstDate(text, from, to);
+            if (candidate == null) {
+                continue;
+            }
+            distinctValues.add(candidate.value());
+            if (best == null || candidate.confidence() > best.confidence()) {
+                best = candidate;
+            }
+        }
+        if (best != null && distinctValues.size() > 1) {
+            best = new Candidate(best.value(), best.confidence() * CONFLICT_FACTOR);
+        }
+        return best;
+    }
+
+    private Candidate firstValue(FieldRule rule, String text, int from, int to) {
+        Matcher matcher = rule.valuePattern().matcher(text).region(from, to);
+        while (matcher.find()) {
+            Object value = rule.normaliser().apply(matcher);
+            if (value != null) {
+                return new Candidate(value, confidence(matcher.start() - from));
+            }
+        }
+        return null;
+    }
+
+    private Candidate firstDate(String text, int from, int to) {
+        Matcher numeric = NUMERIC_DATE.matcher(text).region(from, to);
+        Matcher written = WRITTEN_DATE.matcher(text).region(from, to);
+        List<Candidate> candidates = new ArrayList<>(2);
+        if (numeric.find()) {
+            String date = toDate(numeric.group(1), numeric.group(2), numeric.group(3));
+            if (date != null) {
+                candidates.add(new Candidate(date, confidence(numeric.start() - from)));
+            }
+        }
+        if (written.find()) {
+            Integer month = MONTHS.get(written.group(2).toLowerCase(Locale.ROOT));
+            String date = month != null ? toDate(written.group(1), String.valueOf(month), written.group(3)) : null;
+            if (date != null) {
+                candidates.add(new Candidate(date, confidence(written.start() - from)));
+            }
+        }
+        return candidates.stream().max((a, b) -> Double.compare(a.confidence(), b.confidence())).orElse(null);
+    }
+
+    private double confidence(int distance) {
+        return BASE_CONFIDENCE - DISTANCE_PENALTY * distance / config.getLabelWindow();
+    }
+
+    private static String toDate(String day, String month, String year) {
+        try {
+            return LocalDate.of(Integer.parseInt(year), Integer.parseInt(month), Integer.parseInt(day)).format(ANSWER_DATE);
+        } catch (DateTimeException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double toDecimal(Matcher matcher) {
+        String amount = matcher.group(1).replace(",", "") + (matcher.group(2) != null ? matcher.group(2) : "");
+        BigDecimal value = new BigDecimal(amount);
+        return value.signum() > 0 ? value.doubleValue() : null;
+    }
+
+    private static Pattern label(String regex) {
+        return Pattern.compile("\\b(?:" + regex + ")\\b\\.?\\s*[:\\-]?", Pattern.CASE_INSENSITIVE);
+    }
+
+    private static Map<String, Integer> months() {
+        Map<String, Integer> months = new LinkedHashMap<>();
+        String[] names = {"january", "february", "march", "april", "may", "june", "july", "august",
+                "september", "october", "november", "december"};
+        for (int i = 0; i < names.length; i++) {
+            months.put(names[i], i + 1);
+            months.put(names[i].substring(0, 3), i + 1);
+        }
+        months.put("sept", 9);
+        return months;
+    }
+
+    /**
+     * A field extracted by label proximity. Date rules have no value pattern and use the date patterns.
+     */
+    private record FieldRule(String questionId, String answerType, Pattern label, Pattern valuePattern,
+                             Function<Matcher, Object> normaliser) {
+    }
+
+    private record Candidate(Object value, double confidence) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.AzureDocumentIntelligenceConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default analyzer model policy.
+ *
+ * The layout model recovers tables (valuation figures, property details) from short scanned reports.
+ * Everything else goes to the read model, which is cheaper and faster: long or large documents, and
+ * mostly digital reports whose remaining pages are typically photos, plans or signature pages.
+ */
+@Component
+public class SignalBasedAnalyzerModelStrategy implements AnalyzerModelStrategy {
+
+    private final AzureDocumentIntelligenceConfig config;
+
+    @Autowired
+    public SignalBasedAnalyzerModelStrategy(AzureDocumentIntelligenceConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public String selectModel(DocumentSignals signals) {
+        AzureDocumentIntelligenceConfig.ModelSelection selection = config.getModelSelection();
+        if (!selection.isEnabled()) {
+            return config.getModelId();
+        }
+
+        int analyzedPages = signals.remotePageCount() >= 0 ? signals.remotePageCount() : signals.pageCount();
+        if (analyzedPages < 0 || analyzedPages > selection.getLayoutMaxPages()) {
+            return selection.getReadModelId();
+        }
+        if (signals.fileSizeBytes() > selection.getLayoutMaxFileSizeMb() * 1024 * 1024) {
+            return selection.getReadModelId();
+        }
+        if (signals.textLayerFraction() >= selection.getReadMinTextLayerFraction()) {
+            return selection.getReadModelId();
+        }
+        return selection.getLayoutModelId();
+    }
+}
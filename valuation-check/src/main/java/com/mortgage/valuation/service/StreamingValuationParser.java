@@ -0,0 +1,133 @@
+package com.mortgage.valuation.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.mortgage.valuation.model.ValuationResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Parses a valuation JSON object incrementally as the completion is streamed.
+ *
+ * Chunks are fed into Jackson's non-blocking parser, and each entry of the top-level {@code answers}
+ * array is handed to the listener as soon as its closing brace arrives. Text before the first
+ * {@code {} (e.g. a markdown fence) and anything after the root object is ignored.
+ */
+public class StreamingValuationParser {
+
+    private final ObjectMapper objectMapper;
+    private final Consumer<ValuationResponse.Answer> answerListener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private final TokenBuffer document;
+    private TokenBuffer currentAnswer;
+    private boolean started;
+    private boolean finished;
+    private int depth;
+    private String rootField;
+    private int answerCount;
+
+    public StreamingValuationParser(ObjectMapper objectMapper, Consumer<ValuationResponse.Answer> answerListener)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.answerListener = answerListener;
+        this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.document = new TokenBuffer(objectMapper, false);
+    }
+
+    /**
+     * Feeds the next chunk of completion text.
+     *
+     * @param chunk Text delta from the stream
+     * @throws IOException if the text is not valid JSON
+     */
+    public void feed(String chunk) throws IOException {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            chunk = chunk.substring(start);
+        }
+
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+    }
+
+    /**
+     * Completes parsing once the stream has ended.
+     *
+     * @return The full valuation response
+     * @throws IOException if the stream ended before the root object was complete
+     */
+    public ValuationResponse finish() throws IOException {
+        if (!finished) {
+            feeder.endOfInput();
+            drain();
+        }
+        if (!finished) {
+            throw new IOException("Completion ended before the JSON object was complete");
+        }
+        try (JsonParser documentParser = document.asParser()) {
+            return objectMapper.readValue(documentParser, ValuationResponse.class);
+        }
+    }
+
+    /**
+     * Returns how many answers have been emitted so far.
+     */
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            document.copyCurrentEvent(parser);
+
+            if (depth == 1 && token == JsonToken.FIELD_NAME) {
+                rootField = parser.currentName();
+            }
+
+            if (currentAnswer != null) {
+                currentAnswer.copyCurrentEvent(parser);
+            } else if (depth == 2 && token == JsonToken.START_OBJECT && "answers".equals(rootField)) {
+                currentAnswer = new TokenBuffer(objectMapper, false);
+                currentAnswer.copyCurrentEvent(parser);
+            }
+
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                if (depth == 2 && currentAnswer != null) {
+                    emitAnswer();
+                } else if (depth == 0) {
+                    finished = true;
+                }
+            }
+        }
+    }
+
+    private void emitAnswer() throws IOException {
+        try (JsonParser answerParser = currentAnswer.asParser()) {
+            ValuationResponse.Answer answer = objectMapper.readValue(answerParser, ValuationResponse.Answer.class);
+            answerCount++;
+            answerListener.accept(answer);
+        } finally {
+            currentAnswer = null;
+        }
+    }
+}
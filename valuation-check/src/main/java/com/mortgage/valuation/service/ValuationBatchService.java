@@ -0,0 +1,165 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.exception.ValuationErrorMapper;
+import com.mortgage.valuation.model.ValuationBatchItem;
+import com.mortgage.valuation.model.ValuationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values batches of requests as a pipeline: items are queued on the pipeline's stages without waiting,
+ * so one report downloads while another is in OCR and a third is with the LLM. Throughput is bounded by
+ * the slowest stage rather than the sum of all three.
+ *
+ * Each batch keeps at most {@code max-in-flight} items between download and result, which bounds the
+ * reports held in memory and keeps a batch from filling the stage queues on its own. An item refused by
+ * a full stage fails with 503 like any other request. Each item gets its own deadline from the moment
+ * it starts, and items still running when the client goes away are cancelled.
+ */
+@Service
+public class ValuationBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationBatchService.class);
+
+    private final ValuationPipeline valuationPipeline;
+    private final ValuationErrorMapper errorMapper;
+    private final Validator validator;
+    private final ValuationConfig.Batch config;
+    private final Duration timeout;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    @Autowired
+    public ValuationBatchService(ValuationPipeline valuationPipeline, ValuationErrorMapper errorMapper,
+                                 Validator validator, ValuationConfig valuationConfig,
+                                 MeterRegistry meterRegistry) {
+        this.valuationPipeline = valuationPipeline;
+        this.errorMapper = errorMapper;
+        this.validator = validator;
+        this.config = valuationConfig.getBatch();
+        this.timeout = Duration.ofSeconds(valuationConfig.getTimeoutSeconds());
+
+        this.succeeded = Counter.builder("valuation.batch.items").tag("outcome", "success")
+                .description("Batch items finished").register(meterRegistry);
+        this.failed = Counter.builder("valuation.batch.items").tag("outcome", "failure")
+                .description("Batch items finished").register(meterRegistry);
+    }
+
+    public int getMaxItems() {
+        return config.getMaxItems();
+    }
+
+    /**
+     * Values every request in the batch, handing each item to the writer as soon as it finishes. Items
+     * are written in completion order from the calling thread. Invalid requests fail individually
+     * without stopping the batch.
+     *
+     * @param requests The batch
+     * @param path The submission path, for error responses
+     * @param writer Receives each finished item
+     * @throws IOException if the writer fails, e.g. because the client went away; no further items are
+     *         started, and those already started are cancelled
+     */
+    public void process(List<ValuationRequest> requests, String path, ItemWriter writer) throws IOException {
+        logger.info("Starting valuation batch of {} requests", requests.size());
+        long started = System.nanoTime();
+        BlockingQueue<ValuationBatchItem> finished = new LinkedBlockingQueue<>();
+        Set<Deadline> running = ConcurrentHashMap.newKeySet();
+        int inFlight = 0;
+
+        try {
+            for (int index = 0; index < requests.size(); index++) {
+                ValuationBatchItem item;
+                while ((item = finished.poll()) != null) {
+                    writer.write(item);
+                    inFlight--;
+                }
+                if (inFlight >= config.getMaxInFlight()) {
+                    writer.write(take(finished));
+                    inFlight--;
+                }
+                ValuationRequest request = requests.get(index) != null ? requests.get(index) : new ValuationRequest();
+                start(index, request, path, finished, running);
+                inFlight++;
+            }
+            for (; inFlight > 0; inFlight--) {
+                writer.write(take(finished));
+            }
+        } catch (IOException e) {
+            logger.info("Batch of {} requests abandoned, cancelling {} running items: {}", requests.size(),
+                    running.size(), e.getMessage());
+            running.forEach(Deadline::cancel);
+            throw e;
+        }
+
+        logger.info("Finished valuation batch of {} requests in {} ms", requests.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void start(int index, ValuationRequest request, String path, BlockingQueue<ValuationBatchItem> finished,
+                       Set<Deadline> running) {
+        String requestId = request.getRequestId();
+        Set<ConstraintViolation<ValuationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            failed.increment();
+            finished.add(new ValuationBatchItem(index, request,
+                    errorMapper.toValidationErrorResponse(violations, path, requestId)));
+            return;
+        }
+
+        Deadline deadline = Deadline.after(timeout);
+        running.add(deadline);
+        valuationPipeline.submit(request.getLoanApplicationId(), requestId, deadline)
+                .whenComplete((response, failure) -> {
+                    running.remove(deadline);
+                    deadline.close();
+                    if (failure == null) {
+                        succeeded.increment();
+                        finished.add(new ValuationBatchItem(index, request, response));
+                        return;
+                    }
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    Exception exception = cause instanceof Exception e ? e : new RuntimeException(cause);
+                    failed.increment();
+                    finished.add(new ValuationBatchItem(index, request,
+                            errorMapper.toErrorResponse(exception, path, requestId)));
+                });
+    }
+
+    private static ValuationBatchItem take(BlockingQueue<ValuationBatchItem> finished) throws IOException {
+        try {
+            return finished.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batch items");
+        }
+    }
+
+    /**
+     * Receives finished batch items.
+     */
+    @FunctionalInterface
+    public interface ItemWriter {
+        void write(ValuationBatchItem item) throws IOException;
+    }
+}
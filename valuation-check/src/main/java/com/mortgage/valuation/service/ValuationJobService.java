@@ -0,0 +1,142 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.WorkerThreads;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.exception.ValuationErrorMapper;
+import com.mortgage.valuation.model.ErrorResponse;
+import com.mortgage.valuation.model.ValuationJob;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs valuations as asynchronous jobs on a bounded worker pool, so request threads only enqueue the
+ * work and return. Submissions are rejected once the queue is full.
+ */
+@Service
+public class ValuationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationJobService.class);
+
+    private final ValuationPipeline valuationPipeline;
+    private final ValuationJobStore jobStore;
+    private final ValuationErrorMapper errorMapper;
+    private final ThreadPoolExecutor workers;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+
+    @Autowired
+    public ValuationJobService(ValuationPipeline valuationPipeline, ValuationJobStore jobStore,
+                               ValuationErrorMapper errorMapper, ValuationConfig valuationConfig,
+                               Environment environment, MeterRegistry meterRegistry) {
+        this.valuationPipeline = valuationPipeline;
+        this.jobStore = jobStore;
+        this.errorMapper = errorMapper;
+        this.meterRegistry = meterRegistry;
+        this.timeout = Duration.ofSeconds(valuationConfig.getTimeoutSeconds());
+
+        ValuationConfig.Jobs config = valuationConfig.getJobs();
+        this.workers = new ThreadPoolExecutor(config.getWorkers(), config.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                WorkerThreads.factory("valuation-job-", Threading.VIRTUAL.isActive(environment)));
+
+        this.rejected = Counter.builder("valuation.jobs.rejected")
+                .description("Job submissions rejected because the queue was full").register(meterRegistry);
+        Gauge.builder("valuation.jobs.queued", workers, executor -> executor.getQueue().size())
+                .description("Jobs waiting for a worker").register(meterRegistry);
+        Gauge.builder("valuation.jobs.running", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Jobs being processed").register(meterRegistry);
+    }
+
+    /**
+     * Queues a valuation job.
+     *
+     * @param loanApplicationId The loan application the report belongs to
+     * @param requestId The request ID
+     * @param path The submission path, for error responses
+     * @return The queued job
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public ValuationJob submit(String loanApplicationId, String requestId, String path) {
+        ValuationJob job = new ValuationJob(UUID.randomUUID().toString(), requestId, loanApplicationId);
+        jobStore.save(job);
+        try {
+            workers.execute(() -> run(job, path));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            job.setError(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service unavailable",
+                    "Too many valuation jobs queued", path, requestId));
+            job.setCompletedAt(Instant.now());
+            job.setStatus(ValuationJob.Status.FAILED);
+            jobStore.save(job);
+            throw e;
+        }
+        logger.info("Queued valuation job {} for request {} ({} jobs waiting)",
+                job.getJobId(), requestId, workers.getQueue().size());
+        return job;
+    }
+
+    public Optional<ValuationJob> find(String jobId) {
+        return jobStore.find(jobId);
+    }
+
+    private void run(ValuationJob job, String path) {
+        job.setStartedAt(Instant.now());
+        job.setStatus(ValuationJob.Status.RUNNING);
+        jobStore.save(job);
+        logger.info("Starting valuation job {} for request {}", job.getJobId(), job.getRequestId());
+
+        long started = System.nanoTime();
+        String outcome = "success";
+        // Time spent queued does not count against the job's deadline
+        Deadline deadline = Deadline.after(timeout);
+        try {
+            ValuationResponse result = valuationPipeline.process(job.getLoanApplicationId(), job.getRequestId(),
+                    deadline);
+            job.setResult(result);
+            job.setCompletedAt(Instant.now());
+            // Set last, so that pollers seeing it also see the result
+            job.setStatus(ValuationJob.Status.SUCCEEDED);
+        } catch (Exception e) {
+            outcome = "failure";
+            job.setError(errorMapper.toErrorResponse(e, path, job.getRequestId()));
+            job.setCompletedAt(Instant.now());
+            job.setStatus(ValuationJob.Status.FAILED);
+        } finally {
+            deadline.close();
+            jobStore.save(job);
+            Timer.builder("valuation.jobs.duration")
+                    .tag("outcome", outcome)
+                    .description("Time from a job starting to finishing")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        logger.info("Valuation job {} for request {} finished: {}", job.getJobId(), job.getRequestId(), job.getStatus());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
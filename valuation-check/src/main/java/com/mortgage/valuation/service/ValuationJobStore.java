@@ -0,0 +1,20 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.model.ValuationJob;
+
+import java.util.Optional;
+
+/**
+ * Keeps the state of asynchronous valuation jobs. The in-memory store is used unless another
+ * implementation is registered as the primary bean, e.g. one backed by a database or cache shared
+ * between instances.
+ */
+public interface ValuationJobStore {
+
+    /**
+     * Inserts or replaces a job.
+     */
+    void save(ValuationJob job);
+
+    Optional<ValuationJob> find(String jobId);
+}
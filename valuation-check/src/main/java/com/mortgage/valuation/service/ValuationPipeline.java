@@ -0,0 +1,270 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.ExecutionStage;
+import com.mortgage.valuation.concurrent.SingleFlight;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ExtractionResult;
+import com.mortgage.valuation.model.ValuationReport;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * The valuation chain for one request: download the report, extract and reduce its text, and map it
+ * to VR4B answers. Shared by every entry point. Each step runs on its own {@link ValuationStages stage},
+ * so a step whose queue is full fails fast with {@link ExecutionStage.StageOverloadedException}, and the
+ * batch endpoint can have different reports in different steps at once.
+ *
+ * Text extraction holds a stage worker only while the report is parsed locally; the remote analysis
+ * runs without a thread, and the chain continues when it completes.
+ *
+ * Every run carries a {@link Deadline}: a step still queued when it expires does not start, a running
+ * step stops its remote calls, and the caller stops waiting with {@link Deadline.DeadlineExceededException}.
+ */
+@Service
+public class ValuationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationPipeline.class);
+
+    private final AzureStorageService azureStorageService;
+    private final PdfTextExtractionService pdfTextExtractionService;
+    private final AzureOpenAIService azureOpenAIService;
+    private final ReportTextReducer reportTextReducer;
+    private final ValuationStages stages;
+    private final SingleFlight<String, ValuationResponse> requests;
+    private final Duration timeout;
+
+    @Autowired
+    public ValuationPipeline(AzureStorageService azureStorageService,
+                             PdfTextExtractionService pdfTextExtractionService,
+                             AzureOpenAIService azureOpenAIService,
+                             ReportTextReducer reportTextReducer,
+                             ValuationStages stages,
+                             ValuationConfig valuationConfig,
+                             MeterRegistry meterRegistry) {
+        this.azureStorageService = azureStorageService;
+        this.pdfTextExtractionService = pdfTextExtractionService;
+        this.azureOpenAIService = azureOpenAIService;
+        this.reportTextReducer = reportTextReducer;
+        this.stages = stages;
+        this.requests = valuationConfig.getCoalescing().isEnabled() ? new SingleFlight<>() : null;
+        this.timeout = Duration.ofSeconds(valuationConfig.getTimeoutSeconds());
+        if (requests != null) {
+            FunctionCounter.builder("valuation.requests.coalesced", requests, SingleFlight::getCoalesced)
+                    .description("Valuation requests served by an identical request already in flight")
+                    .register(meterRegistry);
+            Gauge.builder("valuation.requests.in.flight", requests, SingleFlight::getInFlight)
+                    .description("Distinct valuation requests being processed")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs the valuation chain, coalescing concurrent calls for the same loan application and request:
+     * a retry that arrives while the original is still running receives the original's response or
+     * exception instead of starting a second pipeline. The shared run gets the configured timeout and
+     * stops once every call waiting for it has given up; each call waits no longer than its own deadline.
+     *
+     * @see #process(String, String, ProgressListener, Deadline)
+     */
+    public ValuationResponse process(String loanApplicationId, String requestId, Deadline deadline) throws Exception {
+        if (requests == null) {
+            return process(loanApplicationId, requestId, ProgressListener.NONE, deadline);
+        }
+        return await(requests.executeAsync(loanApplicationId + "/" + requestId, deadline, timeout, "valuation",
+                shared -> submit(loanApplicationId, requestId, shared)));
+    }
+
+    /**
+     * Runs the valuation chain, reporting its progress. These calls are not coalesced, since a follower
+     * would miss the progress reported before it attached.
+     *
+     * @param loanApplicationId The loan application the report belongs to
+     * @param requestId The request ID
+     * @param progressListener Receives the stage events and each answer as soon as it is known
+     * @param deadline The request's deadline
+     * @return The valuation response
+     * @throws InvalidReportException if the report is not a PDF or has no text
+     * @throws AzureStorageService.ReportTooLargeException if the report exceeds the size limit
+     * @throws IOException if the report cannot be downloaded
+     * @throws PdfTextExtractionService.PdfTextExtractionException if text extraction fails
+     * @throws AzureOpenAIService.AzureOpenAIServiceException if the LLM call fails
+     * @throws ExecutionStage.StageOverloadedException if a stage's queue is full
+     * @throws Deadline.DeadlineExceededException if the deadline expired or was cancelled
+     */
+    public ValuationResponse process(String loanApplicationId, String requestId,
+                                     ProgressListener progressListener, Deadline deadline) throws Exception {
+        CompletableFuture<ValuationReport> downloading =
+                stages.download().submit(() -> download(loanApplicationId, requestId, deadline), deadline);
+        ValuationReport report;
+        try {
+            report = await(deadline.bound(downloading, "report download"));
+        } catch (Exception e) {
+            // Abandoned downloads may still complete; their files are released when they do
+            downloading.thenAccept(ValuationReport::close);
+            throw e;
+        }
+        progressListener.downloaded(report.getSize());
+
+        ExtractionResult extraction = await(deadline.bound(extract(report, requestId, deadline), "text extraction"));
+
+        return await(deadline.bound(stages.valuation().submit(
+                () -> value(extraction, requestId, progressListener, deadline), deadline), "LLM completion"));
+    }
+
+    /**
+     * Queues the valuation chain without waiting for it. Each step is queued on its stage when the
+     * previous one finishes.
+     *
+     * @return A future completing with the valuation response, or with the exception documented on
+     *         {@link #process(String, String, ProgressListener, Deadline)}, possibly wrapped in a
+     *         {@link CompletionException}
+     */
+    public CompletableFuture<ValuationResponse> submit(String loanApplicationId, String requestId, Deadline deadline) {
+        return stages.download().submit(() -> download(loanApplicationId, requestId, deadline), deadline)
+                .thenCompose(report -> extract(report, requestId, deadline))
+                .thenCompose(extraction -> stages.valuation().submit(
+                        () -> value(extraction, requestId, ProgressListener.NONE, deadline), deadline));
+    }
+
+    /**
+     * Stage 1: downloads the report and checks it is a PDF.
+     *
+     * @return The report, which the caller must close
+     * @throws InvalidReportException if the report is not a PDF
+     * @throws AzureStorageService.ReportTooLargeException if the report exceeds the size limit
+     * @throws IOException if the report cannot be downloaded
+     * @throws Deadline.DeadlineExceededException if the deadline expired
+     */
+    private ValuationReport download(String loanApplicationId, String requestId, Deadline deadline)
+            throws IOException, InvalidReportException, Deadline.DeadlineExceededException {
+        deadline.check("report download");
+        // Step 1: Download PDF from Azure Storage
+        logger.info("Step 1: Downloading PDF from Azure Storage for request: {} and loan application: {}",
+                requestId, loanApplicationId);
+        ValuationReport report = azureStorageService.fetchValuationReport(loanApplicationId, requestId, deadline);
+
+        // Step 2: Validate PDF content
+        if (!pdfTextExtractionService.isPdf(report)) {
+            report.close();
+            logger.error("Downloaded file is not a valid PDF for request: {}", requestId);
+            throw new InvalidReportException("Invalid PDF file", "The file downloaded from S3 is not a valid PDF");
+        }
+        return report;
+    }
+
+    /**
+     * Stage 2: reads the report's text layer and starts the remote analysis of the remaining pages. The
+     * stage worker is released once the analysis has started; the report is closed when it finishes.
+     *
+     * @return A future completing with the extraction result, or failing with a
+     *         {@link PdfTextExtractionService.PdfTextExtractionException} or
+     *         {@link Deadline.DeadlineExceededException}
+     */
+    private CompletableFuture<ExtractionResult> extract(ValuationReport report, String requestId, Deadline deadline) {
+        return stages.extraction().submit(() -> {
+                    // Step 3: Extract text from PDF
+                    deadline.check("text extraction");
+                    logger.info("Step 2: Extracting text from PDF for request: {}", requestId);
+                    return pdfTextExtractionService.extractAsync(report, deadline);
+                }, deadline)
+                .thenCompose(Function.identity())
+                .whenComplete((extraction, failure) -> report.close());
+    }
+
+    /**
+     * Stage 3: reduces the extracted text and maps it to VR4B answers.
+     *
+     * @throws InvalidReportException if no text could be extracted
+     * @throws AzureOpenAIService.AzureOpenAIServiceException if the LLM call fails
+     * @throws Deadline.DeadlineExceededException if the deadline expired
+     */
+    private ValuationResponse value(ExtractionResult extraction, String requestId, ProgressListener progressListener,
+                                   Deadline deadline)
+            throws InvalidReportException, AzureOpenAIService.AzureOpenAIServiceException,
+            Deadline.DeadlineExceededException {
+        // Step 4: Strip headers/footers and boilerplate sections
+        String extractedText = reportTextReducer.reduce(extraction, requestId).text();
+
+        if (extractedText.trim().isEmpty()) {
+            logger.error("No text content extracted from PDF for request: {}", requestId);
+            throw new InvalidReportException("Empty PDF content", "No text content could be extracted from the PDF");
+        }
+        progressListener.textExtracted(extractedText.length());
+
+        // Step 5: Process with Azure OpenAI
+        deadline.check("LLM completion");
+        logger.info("Step 3: Processing text with Azure OpenAI for request: {}", requestId);
+        progressListener.valuationStarted();
+        ValuationResponse valuationResponse =
+                azureOpenAIService.processValuationText(extractedText, requestId, progressListener::answer, deadline);
+
+        logger.info("Successfully processed valuation request: {}", requestId);
+        return valuationResponse;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Receives the progress of one run of the chain. Answers may arrive from several threads.
+     */
+    public interface ProgressListener {
+
+        ProgressListener NONE = new ProgressListener() { };
+
+        default void downloaded(long bytes) {
+        }
+
+        default void textExtracted(int characters) {
+        }
+
+        default void valuationStarted() {
+        }
+
+        default void answer(ValuationResponse.Answer answer) {
+        }
+    }
+
+    /**
+     * The downloaded report cannot be valued: it is not a PDF or no text could be extracted.
+     */
+    public static class InvalidReportException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String error;
+
+        public InvalidReportException(String error, String message) {
+            super(message);
+            this.error = error;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.ExecutionStage;
+import com.mortgage.valuation.concurrent.WorkerThreads;
+import com.mortgage.valuation.config.ValuationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The pipeline's execution stages, shared by every entry point. Download, extraction and valuation
+ * have very different latencies and quotas, so each gets its own workers and queue, and an overloaded
+ * stage sheds work without holding up the others.
+ */
+@Component
+public class ValuationStages {
+
+    private final ExecutionStage download;
+    private final ExecutionStage extraction;
+    private final ExecutionStage valuation;
+
+    @Autowired
+    public ValuationStages(ValuationConfig valuationConfig, Environment environment, MeterRegistry meterRegistry) {
+        ValuationConfig.Stages config = valuationConfig.getStages();
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.download = stage("download", config.getDownload(), virtualThreads, meterRegistry);
+        this.extraction = stage("extraction", config.getExtraction(), virtualThreads, meterRegistry);
+        this.valuation = stage("valuation", config.getValuation(), virtualThreads, meterRegistry);
+    }
+
+    public ExecutionStage download() {
+        return download;
+    }
+
+    public ExecutionStage extraction() {
+        return extraction;
+    }
+
+    public ExecutionStage valuation() {
+        return valuation;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        download.shutdown();
+        extraction.shutdown();
+        valuation.shutdown();
+    }
+
+    private static ExecutionStage stage(String name, ValuationConfig.Stage config, boolean virtualThreads,
+                                        MeterRegistry meterRegistry) {
+        return new ExecutionStage(name, config.getConcurrency(), config.getQueueCapacity(),
+                WorkerThreads.factory("stage-" + name + "-", virtualThreads), meterRegistry);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.WorkerThreads;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.exception.ValuationErrorMapper;
+import com.mortgage.valuation.model.ValuationProgress;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs valuations whose progress is streamed to the client as server-sent events, so a UI can show
+ * each stage and render answers as they arrive instead of polling. A valuation whose client has gone
+ * away is cancelled.
+ */
+@Service
+public class ValuationStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValuationStreamService.class);
+
+    private final ValuationPipeline valuationPipeline;
+    private final ValuationErrorMapper errorMapper;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor streams;
+    private final Counter rejected;
+
+    @Autowired
+    public ValuationStreamService(ValuationPipeline valuationPipeline, ValuationErrorMapper errorMapper,
+                                  ValuationConfig valuationConfig, Environment environment,
+                                  MeterRegistry meterRegistry) {
+        this.valuationPipeline = valuationPipeline;
+        this.errorMapper = errorMapper;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(valuationConfig.getTimeoutSeconds());
+
+        int maxConcurrent = valuationConfig.getStreams().getMaxConcurrent();
+        this.streams = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                WorkerThreads.factory("valuation-stream-", Threading.VIRTUAL.isActive(environment)));
+        this.streams.allowCoreThreadTimeOut(true);
+
+        this.rejected = Counter.builder("valuation.streams.rejected")
+                .description("Progress streams refused because the maximum were open").register(meterRegistry);
+        Gauge.builder("valuation.streams.active", streams, ThreadPoolExecutor::getActiveCount)
+                .description("Progress streams being processed").register(meterRegistry);
+    }
+
+    /**
+     * Starts a valuation and returns the emitter its progress is sent to. Events, each with a JSON
+     * payload, are {@code stage} for every finished step, {@code answer} for every answer as soon as it
+     * is known, and finally either {@code complete} with the valuation response or {@code error} with
+     * the error response.
+     *
+     * @param loanApplicationId The loan application the report belongs to
+     * @param requestId The request ID
+     * @param path The request path, for error responses
+     * @return The emitter
+     * @throws RejectedExecutionException if the maximum number of streams are open
+     */
+    public SseEmitter stream(String loanApplicationId, String requestId, String path) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        EventSender sender = new EventSender(emitter, requestId, Deadline.after(Duration.ofMillis(timeoutMillis)));
+        try {
+            streams.execute(() -> run(loanApplicationId, requestId, path, sender));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            sender.deadline.close();
+            throw e;
+        }
+        return emitter;
+    }
+
+    private void run(String loanApplicationId, String requestId, String path, EventSender sender) {
+        ValuationPipeline.ProgressListener listener = new ValuationPipeline.ProgressListener() {
+            @Override
+            public void downloaded(long bytes) {
+                sender.send("stage", ValuationProgress.downloaded(bytes));
+            }
+
+            @Override
+            public void textExtracted(int characters) {
+                sender.send("stage", ValuationProgress.textExtracted(characters));
+            }
+
+            @Override
+            public void valuationStarted() {
+                sender.send("stage", ValuationProgress.valuationStarted());
+            }
+
+            @Override
+            public void answer(ValuationResponse.Answer answer) {
+                sender.send("answer", answer);
+            }
+        };
+
+        try {
+            ValuationResponse response =
+                    valuationPipeline.process(loanApplicationId, requestId, listener, sender.deadline);
+            sender.send("complete", response);
+        } catch (Exception e) {
+            sender.send("error", errorMapper.toErrorResponse(e, path, requestId));
+        } finally {
+            sender.deadline.close();
+        }
+        sender.complete();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
+    }
+
+    /**
+     * Sends events until the client goes away or the stream times out; either cancels the valuation's
+     * deadline, and later events are dropped.
+     */
+    private static class EventSender {
+
+        private final SseEmitter emitter;
+        private final String requestId;
+        private final Deadline deadline;
+        private volatile boolean open = true;
+
+        EventSender(SseEmitter emitter, String requestId, Deadline deadline) {
+            this.emitter = emitter;
+            this.requestId = requestId;
+            this.deadline = deadline;
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+            emitter.onCompletion(() -> open = false);
+        }
+
+        private void close() {
+            open = false;
+            deadline.cancel();
+        }
+
+        void send(String name, Object data) {
+            if (!open) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                close();
+                logger.info("Progress stream for request {} closed: {}", requestId, e.getMessage());
+            }
+        }
+
+        void complete() {
+            if (open) {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.mortgage.valuation.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The VR4B questions the LLM is asked to answer, in form order, with their answer types and the
+ * question group each one belongs to by default.
+ */
+public final class Vr4bMappingTable {
+
+    public static final String GROUP_ADDRESS = "address";
+    public static final String GROUP_VALUATION = "valuation";
+    public static final String GROUP_TENURE = "tenure";
+    public static final String GROUP_CONSTRUCTION = "construction";
+    public static final String GROUP_VALUER = "valuer";
+
+    private static final List<Question> QUESTIONS = List.of(
+            new Question("VR4B_LenderReference", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_ApplicantNames", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_Transaction", "options", null, GROUP_ADDRESS),
+            new Question("VR4B_PurchasePriceEstimatedValuePpEv", "decimal", null, GROUP_VALUATION),
+            new Question("VR4B_PropertyAddressHouseFlat", "text", "extract house/flat number only", GROUP_ADDRESS),
+            new Question("VR4B_RoadNumber", "text", "extract first road token after house number", GROUP_ADDRESS),
+            new Question("VR4B_RoadName", "text", "remaining road/street name", GROUP_ADDRESS),
+            new Question("VR4B_Area", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_Town", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_County", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_PostCode", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_AddressMatch", "options", null, GROUP_ADDRESS),
+            new Question("VR4B_ActualAddressIfAddressNotAMatch", "text", null, GROUP_ADDRESS),
+            new Question("VR4B_InspectionDate", "date", null, GROUP_VALUER),
+            new Question("VR4B_ReportDate", "date", null, GROUP_VALUER),
+            new Question("VR4B_CertificationIsThePropertySuitableSecurity", "options", null, GROUP_VALUATION),
+            new Question("VR4B_IfPropertyIsNotSuitableSecurityPleaseIdentifyWhy", "options", null, GROUP_VALUATION),
+            new Question("VR4B_SecurityOther", "text", null, GROUP_VALUATION),
+            new Question("VR4B_AreAllFlatsMarketableAndMortgageable", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_IsThePropertyBuiltOfTraditionalConstruction", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_SpecialistReportsRequired", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_AnyApplicableLicensingSchemeInPlace", "options", null, GROUP_TENURE),
+            new Question("VR4B_MarketValue", "decimal",
+                    "maps from previous VR4B_ValuationMarketValueAggregate", GROUP_VALUATION),
+            new Question("VR4B_MarketValAfterWorksIssuesResolved", "decimal", null, GROUP_VALUATION),
+            new Question("VR4B_MarketRent", "decimal", "maps from VR4B_MarketRentAggregate", GROUP_VALUATION),
+            new Question("VR4B_ReinstatementCost", "decimal", null, GROUP_VALUATION),
+            new Question("VR4B_DoesTheReinstatementCostCarryHighUncertaintyDueToSpecialistBuildingFeaturesListingOrOtherMatters",
+                    "options", null, GROUP_VALUATION),
+            new Question("VR4B_RecommendedRetentionAmount", "decimal", "default 0.0 if missing", GROUP_VALUATION),
+            new Question("VR4B_Tenure", "options", "maps from VR4B_TitleTenureAndAccessTenure", GROUP_TENURE),
+            new Question("VR4B_AnyFlyingCreepingFhEvident", "options", null, GROUP_TENURE),
+            new Question("VR4B_IfLeaseholdWhatIsTheUnexpiredLeaseTerm", "number", null, GROUP_TENURE),
+            new Question("VR4B_WhatPercentageOfTotalAreaIsFfh", "number", null, GROUP_TENURE),
+            new Question("VR4B_DoesThereAppearToBeSharedAccess", "options", null, GROUP_TENURE),
+            new Question("VR4B_IsAccessFromPublicLand", "options", null, GROUP_TENURE),
+            new Question("VR4B_IsAccessMadeUp", "options", null, GROUP_TENURE),
+            new Question("VR4B_SecurityProperyTypeAndStyle", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_NumberOfFloorsInTheBuilding", "number", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_HowManyFlatsAreInTheEntireBuilding", "number", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_IsThePropertyServedByALift", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_IsThePropertyANewBuild", "options", null, GROUP_CONSTRUCTION),
+            new Question("VR4B_ValuersDeclarationValuerName", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_Qualification", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_RicsNumber", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_FirmName", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_FirmAddressLine1", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_FirmAddressLine2", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_FirmAddressLine3", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_TelephoneNo", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_EmailAddressLine1", "text", "null if not found", GROUP_VALUER),
+            new Question("VR4B_LenderReportPhotographs", "photos", "null if not found", GROUP_VALUER));
+
+    private static final Map<String, Question> BY_ID = QUESTIONS.stream()
+            .collect(Collectors.toMap(Question::questionId, Function.identity()));
+
+    private Vr4bMappingTable() {
+    }
+
+    /**
+     * Returns all questions in form order.
+     */
+    public static List<Question> questions() {
+        return QUESTIONS;
+    }
+
+    public static Optional<Question> find(String questionId) {
+        return Optional.ofNullable(BY_ID.get(questionId));
+    }
+
+    /**
+     * Returns the position of a question in form order, or -1 if it is not in the table.
+     */
+    public static int indexOf(String questionId) {
+        Question question = BY_ID.get(questionId);
+        return question != null ? QUESTIONS.indexOf(question) : -1;
+    }
+
+    /**
+     * Groups the questions by their default group, in order of first appearance.
+     */
+    public static Map<String, List<Question>> defaultGroups() {
+        return QUESTIONS.stream().collect(Collectors.groupingBy(Question::group, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Groups the questions as configured. Questions not listed in any configured group are collected
+     * into an {@code other} group, so every question is asked exactly once.
+     *
+     * @param configured Group name to question ids; empty for the default groups
+     */
+    public static Map<String, List<Question>> groups(Map<String, List<String>> configured) {
+        if (configured == null || configured.isEmpty()) {
+            return defaultGroups();
+        }
+        Map<String, List<Question>> groups = new LinkedHashMap<>();
+        Set<String> assigned = new HashSet<>();
+        configured.forEach((group, questionIds) -> {
+            List<Question> questions = questionIds.stream()
+                    .filter(id -> !assigned.contains(id))
+                    .map(BY_ID::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            questions.forEach(question -> assigned.add(question.questionId()));
+            if (!questions.isEmpty()) {
+                groups.put(group, questions);
+            }
+        });
+        List<Question> other = QUESTIONS.stream().filter(question -> !assigned.contains(question.questionId())).toList();
+        if (!other.isEmpty()) {
+            groups.put("other", other);
+        }
+        return groups;
+    }
+
+    /**
+     * Renders questions as mapping table lines for the system prompt.
+     */
+    public static String render(List<Question> questions) {
+        return questions.stream()
+                .map(question -> String.format("- %-50s -> %s%s", question.questionId(), question.answerType(),
+                        question.note() != null ? " (" + question.note() + ")" : ""))
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * A VR4B question.
+     *
+     * @param questionId The form question id
+     * @param answerType The expected answer type
+     * @param note Extraction hint shown to the model, or null
+     * @param group The default question group
+     */
+    public record Question(String questionId, String answerType, String note, String group) {
+    }
+}
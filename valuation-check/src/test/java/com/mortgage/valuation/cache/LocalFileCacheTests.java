@@ -0,0 +1,104 @@
+package com.mortgage.valuation.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalFileCacheTests {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void returnsWhatWasPut() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 1024, meterRegistry);
+
+        cache.put("a", bytes("hello"));
+
+        assertThat(cache.get("a")).hasValueSatisfying(path -> assertThat(path).hasContent("hello"));
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(meterRegistry.get("valuation.cache.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("valuation.cache.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 10, meterRegistry);
+        cache.put("a", bytes("aaaa"));
+        cache.put("b", bytes("bbbb"));
+        cache.get("a");
+
+        cache.put("c", bytes("cccc"));
+
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).isPresent();
+        assertThat(cache.getCurrentSizeBytes()).isEqualTo(8);
+        assertThat(Files.exists(directory.resolve("b"))).isFalse();
+    }
+
+    @Test
+    void doesNotRetainEntriesLargerThanTheCache() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 4, meterRegistry);
+
+        cache.put("a", bytes("too large"));
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.getEntryCount()).isZero();
+    }
+
+    @Test
+    void expiresEntriesAfterTimeToLive() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 1024, Duration.ofMillis(50), meterRegistry);
+        cache.put("a", bytes("hello"));
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(meterRegistry.get("valuation.cache.expirations").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsEntriesAndDiscardsTempFilesOnStartup() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 1024, meterRegistry);
+        cache.put("a", bytes("hello"));
+        Path leftover = cache.createTempFile();
+
+        LocalFileCache reopened = new LocalFileCache("test", directory, 1024, new SimpleMeterRegistry());
+
+        assertThat(reopened.get("a")).isPresent();
+        assertThat(reopened.getCurrentSizeBytes()).isEqualTo(5);
+        assertThat(Files.exists(leftover)).isFalse();
+    }
+
+    @Test
+    void invalidateRemovesTheFile() throws Exception {
+        LocalFileCache cache = new LocalFileCache("test", directory, 1024, meterRegistry);
+        cache.put("a", bytes("hello"));
+
+        cache.invalidate("a");
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(Files.exists(directory.resolve("a"))).isFalse();
+    }
+
+    @Test
+    void keysDependOnEveryPartAndItsBoundaries() {
+        assertThat(LocalFileCache.keyOf("a", "b")).isEqualTo(LocalFileCache.keyOf("a", "b"));
+        assertThat(LocalFileCache.keyOf("a", "b")).isNotEqualTo(LocalFileCache.keyOf("ab"));
+        assertThat(LocalFileCache.keyOf("a", "b")).matches("[0-9a-f]{64}");
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mortgage.valuation.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportBlobIndexTests {
+
+    private static final OffsetDateTime MODIFIED = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReportBlobIndex index = new ReportBlobIndex("reports", meterRegistry);
+
+    @Test
+    void resolvesRecordedReportsByLoanAndRequest() {
+        assertThat(index.record("reports/loan-1/req-1/report.pdf", "etag", 42, MODIFIED)).isTrue();
+
+        assertThat(index.get("loan-1", "req-1")).hasValueSatisfying(entry -> {
+            assertThat(entry.blobName()).isEqualTo("reports/loan-1/req-1/report.pdf");
+            assertThat(entry.eTag()).isEqualTo("etag");
+            assertThat(entry.size()).isEqualTo(42);
+        });
+        assertThat(index.get("loan-1", "req-2")).isEmpty();
+        assertThat(meterRegistry.get("valuation.storage.index.hits").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("valuation.storage.index.misses").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresBlobsThatAreNotReports() {
+        assertThat(index.record("other/loan-1/req-1/report.pdf", "etag", 1, MODIFIED)).isFalse();
+        assertThat(index.record("reports/loan-1/req-1/notes.txt", "etag", 1, MODIFIED)).isFalse();
+        assertThat(index.record("reports/loan-1/report.pdf", "etag", 1, MODIFIED)).isFalse();
+
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void keepsTheFirstReportInListingOrder() {
+        index.record("reports/loan-1/req-1/b.pdf", "etag-b", 1, MODIFIED);
+        index.record("reports/loan-1/req-1/a.PDF", "etag-a", 1, MODIFIED);
+        index.record("reports/loan-1/req-1/c.pdf", "etag-c", 1, MODIFIED);
+
+        assertThat(index.get("loan-1", "req-1")).map(ReportBlobIndex.Entry::blobName)
+                .hasValue("reports/loan-1/req-1/a.PDF");
+    }
+
+    @Test
+    void updatesTheSameBlobWithNewProperties() {
+        index.record("reports/loan-1/req-1/report.pdf", "etag-1", 1, MODIFIED);
+        index.record("reports/loan-1/req-1/report.pdf", "etag-2", 2, MODIFIED.plusDays(1));
+
+        assertThat(index.get("loan-1", "req-1")).map(ReportBlobIndex.Entry::eTag).hasValue("etag-2");
+    }
+
+    @Test
+    void removeDropsTheEntry() {
+        index.record("reports/loan-1/req-1/report.pdf", "etag", 1, MODIFIED);
+
+        index.remove("loan-1", "req-1");
+
+        assertThat(index.get("loan-1", "req-1")).isEmpty();
+    }
+}
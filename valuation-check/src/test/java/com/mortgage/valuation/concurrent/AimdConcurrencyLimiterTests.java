@@ -0,0 +1,102 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class AimdConcurrencyLimiterTests {
+
+    @Test
+    void admitsUpToTheLimit() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 0.5);
+
+        assertThat(limiter.tryAcquire(Duration.ZERO)).isTrue();
+        assertThat(limiter.tryAcquire(Duration.ZERO)).isTrue();
+        assertThat(limiter.tryAcquire(Duration.ofMillis(20))).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void releasedSlotsWakeWaiters() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 1, 10, 0.5);
+        limiter.tryAcquire(Duration.ZERO);
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        limiter.onIgnored();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void increasesAdditivelyOnSuccess() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 3, 0.5);
+
+        for (int i = 0; i < 2; i++) {
+            limiter.tryAcquire(Duration.ZERO);
+            limiter.onSuccess();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(Duration.ZERO);
+            limiter.onSuccess();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void decreasesMultiplicativelyOncePerOverloadEpisode() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 1, 10, 0.5);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(Duration.ZERO);
+        }
+
+        limiter.onThrottled();
+        limiter.onThrottled();
+        limiter.onThrottled();
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void neverDropsBelowTheMinimum() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 2, 10, 0.1);
+        limiter.tryAcquire(Duration.ZERO);
+
+        limiter.onThrottled();
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void leavesTheLimitAloneForIgnoredCalls() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 10, 0.5);
+        limiter.tryAcquire(Duration.ZERO);
+
+        limiter.onIgnored();
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void rejectsInconsistentLimits() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new AimdConcurrencyLimiter(0, 0, 1, 0.5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AimdConcurrencyLimiter(5, 1, 4, 0.5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new AimdConcurrencyLimiter(2, 1, 4, 1.0));
+    }
+}
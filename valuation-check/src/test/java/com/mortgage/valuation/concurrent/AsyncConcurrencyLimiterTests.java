@@ -0,0 +1,75 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncConcurrencyLimiterTests {
+
+    private final AsyncConcurrencyLimiter limiter = new AsyncConcurrencyLimiter(1);
+
+    @Test
+    void queuesOperationsBeyondTheLimitInOrder() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> second = new CompletableFuture<>();
+
+        CompletableFuture<String> firstResult = limiter.submit(() -> first);
+        CompletableFuture<String> secondResult = limiter.submit(() -> second);
+
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        first.complete("first");
+        assertThat(firstResult).isCompletedWithValue("first");
+        assertThat(limiter.getQueued()).isZero();
+
+        second.complete("second");
+        assertThat(secondResult).isCompletedWithValue("second");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void releasesThePermitWhenAnOperationFails() {
+        CompletableFuture<String> failed = limiter.submit(() -> {
+            throw new IllegalStateException("failed");
+        });
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void skipsQueuedOperationsWhoseDeadlineExpired() {
+        CompletableFuture<String> running = new CompletableFuture<>();
+        limiter.submit(() -> running);
+        Deadline expired = Deadline.none();
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<String> skipped = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("skipped");
+        }, expired, "text extraction");
+        CompletableFuture<String> next = limiter.submit(() -> CompletableFuture.completedFuture("next"));
+
+        expired.cancel();
+        running.complete("running");
+
+        assertThatThrownBy(skipped::join).hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(started).hasValue(0);
+        assertThat(next).isCompletedWithValue("next");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void failsAtOnceWhenTheDeadlineHasAlreadyExpired() {
+        CompletableFuture<String> result = limiter.submit(() -> CompletableFuture.completedFuture("value"),
+                Deadline.after(Duration.ZERO), "text extraction");
+
+        assertThatThrownBy(result::join).hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineTests {
+
+    @Test
+    void givesTheTimeLeftAsATimeout() {
+        Duration timeout = Deadline.after(Duration.ofSeconds(10)).timeout();
+
+        assertThat(timeout).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(10));
+        assertThat(Deadline.after(Duration.ZERO).timeout()).isEqualTo(Duration.ofMillis(1));
+        assertThat(Deadline.none().timeout()).isNull();
+    }
+
+    @Test
+    void failsChecksOnceExpired() throws Exception {
+        Deadline.after(Duration.ofSeconds(10)).check("download");
+
+        assertThatThrownBy(() -> Deadline.after(Duration.ZERO).check("download"))
+                .isInstanceOf(Deadline.DeadlineExceededException.class)
+                .hasMessage("Request deadline exceeded during download");
+    }
+
+    @Test
+    void expiresWhenCancelled() {
+        Deadline deadline = Deadline.none();
+
+        deadline.cancel();
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.onExpiry()).isDone();
+        assertThat(deadline.exceeded("download").isCancelled()).isTrue();
+        assertThat(deadline.exceeded("download")).hasMessage("Request was cancelled during download");
+    }
+
+    @Test
+    void failsBoundWorkWhenTheTimeRunsOut() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+
+        CompletableFuture<String> bound = Deadline.after(Duration.ofMillis(50)).bound(work, "extraction");
+
+        assertThatThrownBy(() -> bound.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(work).isNotDone();
+    }
+
+    @Test
+    void passesThroughWorkThatFinishesInTime() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> bound = Deadline.after(Duration.ofSeconds(10)).bound(work, "extraction");
+
+        work.complete("text");
+
+        assertThat(bound.get(5, TimeUnit.SECONDS)).isEqualTo("text");
+    }
+
+    @Test
+    void failsWorkBoundAfterExpiry() {
+        Deadline deadline = Deadline.none();
+        deadline.cancel();
+
+        CompletableFuture<String> bound = deadline.bound(new CompletableFuture<>(), "extraction");
+
+        assertThat(bound).isCompletedExceptionally();
+    }
+
+    @Test
+    void stopsTheTimerAndReleasesBoundWorkWhenClosed() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofMillis(50));
+        CompletableFuture<String> bound = deadline.bound(new CompletableFuture<>(), "extraction");
+
+        deadline.close();
+        Thread.sleep(200);
+
+        assertThat(deadline.onExpiry()).isNotDone();
+        assertThat(bound).isNotDone();
+        assertThat(deadline.isExpired()).isTrue();
+    }
+
+    @Test
+    void childrenAreCancelledWithTheirParentButNotTheOtherWayRound() {
+        Deadline parent = Deadline.after(Duration.ofSeconds(10));
+        Deadline cancelledAlone = parent.child();
+        Deadline child = parent.child();
+
+        cancelledAlone.cancel();
+        assertThat(parent.isExpired()).isFalse();
+        assertThat(child.isExpired()).isFalse();
+        assertThat(child.timeout()).isLessThanOrEqualTo(Duration.ofSeconds(10));
+
+        parent.cancel();
+        assertThat(child.isCancelled()).isTrue();
+        assertThat(parent.child().isCancelled()).isTrue();
+    }
+
+    @Test
+    void closedChildrenAreNotCancelledWithTheirParent() {
+        Deadline parent = Deadline.none();
+        Deadline child = parent.child();
+
+        child.close();
+        parent.cancel();
+
+        assertThat(child.isCancelled()).isFalse();
+    }
+}
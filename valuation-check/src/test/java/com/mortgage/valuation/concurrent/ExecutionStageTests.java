@@ -0,0 +1,127 @@
+package com.mortgage.valuation.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutionStageTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutionStage stage =
+            new ExecutionStage("test", 1, 1, Executors.defaultThreadFactory(), meterRegistry);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        stage.shutdown();
+    }
+
+    @Test
+    void completesWithTheTasksResultOrException() throws Exception {
+        assertThat(stage.submit(() -> "value").get(5, TimeUnit.SECONDS)).isEqualTo("value");
+
+        CompletableFuture<String> failed = stage.submit(() -> {
+            throw new IOException("failed");
+        });
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(meterRegistry.get("valuation.stage.wait").tag("stage", "test").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void refusesWorkAtOnceWhenTheQueueIsFull() throws Exception {
+        CompletableFuture<String> running = stage.submit(this::blockUntilReleased);
+        awaitActive();
+        CompletableFuture<String> queued = stage.submit(() -> "queued");
+
+        CompletableFuture<String> refused = stage.submit(() -> "refused");
+
+        assertThatThrownBy(() -> refused.getNow(null))
+                .hasCauseInstanceOf(ExecutionStage.StageOverloadedException.class);
+        assertThat(meterRegistry.get("valuation.stage.rejected").tag("stage", "test").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("valuation.stage.queued").tag("stage", "test").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("released");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void skipsQueuedWorkWhoseDeadlineExpired() throws Exception {
+        stage.submit(this::blockUntilReleased);
+        awaitActive();
+        Deadline deadline = Deadline.none();
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<String> queued = stage.submit(() -> {
+            started.set(true);
+            return "queued";
+        }, deadline);
+
+        deadline.cancel();
+        release.countDown();
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(started).isFalse();
+        assertThat(meterRegistry.get("valuation.stage.expired").tag("stage", "test").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refusesWorkWhoseDeadlineHasAlreadyExpired() {
+        CompletableFuture<String> refused = stage.submit(() -> "value", Deadline.after(Duration.ZERO));
+
+        assertThatThrownBy(() -> refused.getNow(null))
+                .hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+    }
+
+    @Test
+    void failsQueuedWorkOnShutdown() throws Exception {
+        stage.submit(this::blockUntilReleased);
+        awaitActive();
+        CompletableFuture<String> queued = stage.submit(() -> "queued");
+
+        stage.shutdown();
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void namesTheOverloadedStage() {
+        ExecutionStage.StageOverloadedException overloaded = new ExecutionStage.StageOverloadedException("download");
+
+        assertThat(overloaded.getStage()).isEqualTo("download");
+        assertThat(overloaded).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private String blockUntilReleased() throws InterruptedException {
+        release.await();
+        return "released";
+    }
+
+    private void awaitActive() throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("valuation.stage.active").gauge().value() < 1; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("valuation.stage.active").gauge().value()).isEqualTo(1);
+    }
+}
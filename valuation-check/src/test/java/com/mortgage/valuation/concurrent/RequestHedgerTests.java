@@ -0,0 +1,120 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestHedgerTests {
+
+    private final List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+    @Test
+    void doesNotHedgeBeforeEnoughLatenciesAreRecorded() throws Exception {
+        RequestHedger hedger = new RequestHedger(0.5, Duration.ofMillis(1), 1.0, 10, 2);
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        CompletableFuture<String> result = hedger.execute(attempt -> {
+            attempts.add(attempt);
+            return slow;
+        });
+        Thread.sleep(50);
+
+        assertThat(attempts).containsExactly(0);
+        assertThat(hedger.getHedgeDelay()).isNull();
+        slow.complete("original");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("original");
+    }
+
+    @Test
+    void hedgesASlowAttemptAndCancelsTheLoser() throws Exception {
+        RequestHedger hedger = primed(1.0);
+        CompletableFuture<String> original = new CompletableFuture<>();
+
+        CompletableFuture<String> result = hedger.execute(attempt -> {
+            attempts.add(attempt);
+            return attempt == 0 ? original : CompletableFuture.completedFuture("hedge");
+        });
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(attempts).containsExactly(0, 1);
+        assertThat(original).isCancelled();
+        assertThat(hedger.getHedgesIssued()).isEqualTo(1);
+        assertThat(hedger.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotHedgeWithoutBudget() throws Exception {
+        RequestHedger hedger = primed(0.0);
+        CompletableFuture<String> original = new CompletableFuture<>();
+
+        hedger.execute(attempt -> {
+            attempts.add(attempt);
+            return original;
+        });
+        Thread.sleep(50);
+
+        assertThat(attempts).containsExactly(0);
+        assertThat(hedger.getHedgesIssued()).isZero();
+    }
+
+    @Test
+    void failsOnlyOnceEveryAttemptHasFailed() throws Exception {
+        RequestHedger hedger = primed(1.0);
+        CompletableFuture<String> original = new CompletableFuture<>();
+
+        CompletableFuture<String> result = hedger.execute(attempt -> attempt == 0
+                ? original
+                : CompletableFuture.failedFuture(new IllegalStateException("hedge failed")));
+        Thread.sleep(50);
+
+        assertThat(result).isNotDone();
+        original.completeExceptionally(new IllegalStateException("original failed"));
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("hedge failed");
+    }
+
+    @Test
+    void cancellingTheResultCancelsEveryAttempt() {
+        RequestHedger hedger = primed(1.0);
+        CompletableFuture<String> original = new CompletableFuture<>();
+
+        CompletableFuture<String> result = hedger.execute(attempt -> original);
+        result.cancel(true);
+
+        assertThat(original).isCancelled();
+    }
+
+    @Test
+    void delaysTheHedgeByAPercentileOfRecentLatenciesButNoLessThanTheMinimum() {
+        RequestHedger hedger = primed(1.0);
+
+        assertThat(hedger.getHedgeDelay()).isEqualTo(Duration.ofMillis(10));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new RequestHedger(1.0, Duration.ZERO, 0.05, 10, 5));
+        assertThatIllegalArgumentException().isThrownBy(() -> new RequestHedger(0.95, Duration.ZERO, 0.05, 10, 20));
+    }
+
+    /**
+     * A hedger that has seen two instant operations, so it hedges after its 10ms minimum delay.
+     */
+    private static RequestHedger primed(double budgetRatio) {
+        RequestHedger hedger = new RequestHedger(0.5, Duration.ofMillis(10), budgetRatio, 10, 2);
+        for (int i = 0; i < 2; i++) {
+            hedger.execute(attempt -> CompletableFuture.completedFuture("primed")).join();
+        }
+        return hedger;
+    }
+}
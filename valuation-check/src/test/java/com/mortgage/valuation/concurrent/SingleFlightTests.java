@@ -0,0 +1,182 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void followersShareTheLeadersResult() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> leader = executeAsync("a", Deadline.none(), deadline -> {
+            calls.incrementAndGet();
+            return work;
+        });
+        CompletableFuture<String> follower = executeAsync("a", Deadline.none(), deadline -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        work.complete("value");
+
+        assertThat(leader.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(follower.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.getCoalesced()).isEqualTo(1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void followersReceiveTheLeadersException() {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> leader = executeAsync("a", Deadline.none(), deadline -> work);
+        CompletableFuture<String> follower = executeAsync("a", Deadline.none(),
+                deadline -> CompletableFuture.completedFuture("other"));
+        work.completeExceptionally(new IOException("not found"));
+
+        assertThatThrownBy(() -> leader.get(1, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IOException.class);
+        assertThatThrownBy(() -> follower.get(1, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void releasesTheKeyOnceTheCallFinishes() {
+        assertThat(executeAsync("a", Deadline.none(), deadline -> CompletableFuture.completedFuture("first")))
+                .isCompletedWithValue("first");
+        assertThat(executeAsync("a", Deadline.none(),
+                deadline -> CompletableFuture.failedFuture(new IOException("failed"))))
+                .isCompletedExceptionally();
+
+        assertThat(executeAsync("a", Deadline.none(), deadline -> CompletableFuture.completedFuture("third")))
+                .isCompletedWithValue("third");
+        assertThat(singleFlight.getCoalesced()).isZero();
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void runsDifferentKeysIndependently() throws Exception {
+        CompletableFuture<String> a = new CompletableFuture<>();
+        CompletableFuture<String> b = new CompletableFuture<>();
+
+        CompletableFuture<String> first = executeAsync("a", Deadline.none(), deadline -> a);
+        CompletableFuture<String> second = executeAsync("b", Deadline.none(), deadline -> b);
+        b.complete("b");
+
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("b");
+        assertThat(first).isNotDone();
+        assertThat(singleFlight.getCoalesced()).isZero();
+    }
+
+    @Test
+    void followersGetTheirOwnCopy() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> leader = executeAsync("a", Deadline.none(), deadline -> work);
+        CompletableFuture<String> follower = executeAsync("a", Deadline.none(),
+                deadline -> CompletableFuture.completedFuture("other"));
+
+        follower.cancel(true);
+        work.complete("value");
+
+        assertThat(leader.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(work).isNotCancelled();
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void callsThatThrowFailTheirFuture() {
+        CompletableFuture<String> result = executeAsync("a", Deadline.none(), deadline -> {
+            throw new IllegalStateException("not started");
+        });
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("not started");
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    void sharedCallsOutliveTheLeadersDeadline() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        AtomicReference<Deadline> shared = new AtomicReference<>();
+        Deadline leaderDeadline = Deadline.none();
+        CompletableFuture<String> leader = executeAsync("a", leaderDeadline, deadline -> {
+            shared.set(deadline);
+            return work;
+        });
+        CompletableFuture<String> follower = executeAsync("a", Deadline.after(Duration.ofSeconds(10)),
+                deadline -> CompletableFuture.completedFuture("other"));
+
+        leaderDeadline.cancel();
+        work.complete("value");
+
+        assertThatThrownBy(leader::join).hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(shared.get().isExpired()).isFalse();
+        assertThat(follower.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+    }
+
+    @Test
+    void followersWaitNoLongerThanTheirOwnDeadline() throws Exception {
+        CompletableFuture<String> work = new CompletableFuture<>();
+        CompletableFuture<String> leader = executeAsync("a", Deadline.after(Duration.ofSeconds(10)), deadline -> work);
+
+        CompletableFuture<String> follower = executeAsync("a", Deadline.after(Duration.ofMillis(50)),
+                deadline -> CompletableFuture.completedFuture("other"));
+
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(Deadline.DeadlineExceededException.class);
+        work.complete("value");
+        assertThat(leader.get(1, TimeUnit.SECONDS)).isEqualTo("value");
+    }
+
+    @Test
+    void cancelsTheSharedCallOnceEveryCallerHasGivenUp() {
+        AtomicReference<Deadline> shared = new AtomicReference<>();
+        Deadline leaderDeadline = Deadline.none();
+        Deadline followerDeadline = Deadline.none();
+        executeAsync("a", leaderDeadline, deadline -> {
+            shared.set(deadline);
+            return new CompletableFuture<>();
+        });
+        executeAsync("a", followerDeadline, deadline -> new CompletableFuture<>());
+
+        leaderDeadline.cancel();
+        assertThat(shared.get().isCancelled()).isFalse();
+        followerDeadline.cancel();
+
+        assertThat(shared.get().isCancelled()).isTrue();
+    }
+
+    @Test
+    void startsAfreshOnceTheAbandonedCallIsCancelled() {
+        Deadline abandoned = Deadline.none();
+        executeAsync("a", abandoned, deadline -> new CompletableFuture<>());
+        abandoned.cancel();
+
+        CompletableFuture<String> next = executeAsync("a", Deadline.none(), deadline -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("value");
+        });
+
+        assertThat(next).isCompletedWithValue("value");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.getCoalesced()).isZero();
+    }
+
+    private CompletableFuture<String> executeAsync(String key, Deadline deadline,
+                                                   Function<Deadline, CompletableFuture<String>> call) {
+        return singleFlight.executeAsync(key, deadline, Duration.ofMinutes(1), "valuation", call);
+    }
+}
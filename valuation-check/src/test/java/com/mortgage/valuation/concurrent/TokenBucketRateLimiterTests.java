@@ -0,0 +1,79 @@
+package com.mortgage.valuation.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TokenBucketRateLimiterTests {
+
+    @Test
+    void admitsAFullMinuteOfQuotaImmediately() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(10, Duration.ZERO)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire(10, Duration.ZERO)).isFalse();
+    }
+
+    @Test
+    void limitsByTokensAsWellAsRequests() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1000);
+
+        assertThat(limiter.tryAcquire(800, Duration.ZERO)).isTrue();
+
+        assertThat(limiter.tryAcquire(300, Duration.ZERO)).isFalse();
+        assertThat(limiter.tryAcquire(150, Duration.ZERO)).isTrue();
+        assertThat(limiter.getAvailableTokens()).isLessThan(100);
+    }
+
+    @Test
+    void capsRequestsLargerThanTheBucketAtItsCapacity() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1000);
+
+        assertThat(limiter.tryAcquire(5000, Duration.ZERO)).isTrue();
+    }
+
+    @Test
+    void refillsContinuously() throws Exception {
+        // One request per 10ms
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(6000, 1_000_000);
+        while (limiter.tryAcquire(1, Duration.ZERO)) {
+            // Drain the burst
+        }
+
+        long started = System.nanoTime();
+        assertThat(limiter.tryAcquire(1, Duration.ofSeconds(1))).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void givesUpWithoutWaitingWhenThePermitCannotArriveInTime() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1000);
+        limiter.tryAcquire(1, Duration.ZERO);
+
+        long started = System.nanoTime();
+        assertThat(limiter.tryAcquire(1, Duration.ofSeconds(1))).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void admitsNothingWhilePaused() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1000);
+
+        limiter.pause(Duration.ofMillis(100));
+
+        assertThat(limiter.tryAcquire(1, Duration.ZERO)).isFalse();
+        assertThat(limiter.tryAcquire(1, Duration.ofSeconds(1))).isTrue();
+    }
+
+    @Test
+    void rejectsEmptyQuotas() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucketRateLimiter(0, 1000));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucketRateLimiter(10, 0));
+    }
+}
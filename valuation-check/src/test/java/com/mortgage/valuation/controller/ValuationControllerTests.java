@@ -0,0 +1,280 @@
+package com.mortgage.valuation.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.concurrent.ExecutionStage;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.exception.ValuationErrorMapper;
+import com.mortgage.valuation.model.ErrorResponse;
+import com.mortgage.valuation.model.ValuationBatchItem;
+import com.mortgage.valuation.model.ValuationJob;
+import com.mortgage.valuation.model.ValuationProgress;
+import com.mortgage.valuation.model.ValuationRequest;
+import com.mortgage.valuation.model.ValuationResponse;
+import com.mortgage.valuation.service.ValuationBatchService;
+import com.mortgage.valuation.service.ValuationJobService;
+import com.mortgage.valuation.service.ValuationPipeline;
+import com.mortgage.valuation.service.ValuationStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ValuationController.class)
+@Import({ValuationErrorMapper.class, ValuationConfig.class})
+class ValuationControllerTests {
+
+    private static final String REQUEST = "{\"requestId\":\"req1\",\"loanApplicationId\":\"loan1\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private ValuationPipeline valuationPipeline;
+
+    @MockBean
+    private ValuationJobService valuationJobService;
+
+    @MockBean
+    private ValuationBatchService valuationBatchService;
+
+    @MockBean
+    private ValuationStreamService valuationStreamService;
+
+    @Test
+    void acceptsJobsWithTheirLocation() throws Exception {
+        when(valuationJobService.submit("loan1", "req1", "/valuation/jobs"))
+                .thenReturn(new ValuationJob("job-1", "req1", "loan1"));
+
+        mockMvc.perform(post("/valuation/jobs").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/valuation/jobs/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void rejectsJobsWith503WhenTheQueueIsFull() throws Exception {
+        when(valuationJobService.submit(anyString(), anyString(), anyString()))
+                .thenThrow(new RejectedExecutionException("queue full"));
+
+        mockMvc.perform(post("/valuation/jobs").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(jsonPath("$.requestId").value("req1"));
+    }
+
+    @Test
+    void sheds503WithRetryAfterWhenAStageIsOverloaded() throws Exception {
+        when(valuationPipeline.process(eq("loan1"), eq("req1"), any(Deadline.class)))
+                .thenThrow(new ExecutionStage.StageOverloadedException("download"));
+
+        mockMvc.perform(post("/valuation/process").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(jsonPath("$.requestId").value("req1"));
+    }
+
+    @Test
+    void returns504WhenTheDeadlineExpires() throws Exception {
+        when(valuationPipeline.process(eq("loan1"), eq("req1"), any(Deadline.class)))
+                .thenThrow(new Deadline.DeadlineExceededException("text extraction", false));
+
+        mockMvc.perform(post("/valuation/process").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.requestId").value("req1"));
+    }
+
+    @Test
+    void validatesJobRequests() throws Exception {
+        mockMvc.perform(post("/valuation/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestId\":\"req-1\",\"loanApplicationId\":\"loan1\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(valuationJobService, never()).submit(any(), any(), any());
+    }
+
+    @Test
+    void reportsRunningJobsWith202() throws Exception {
+        ValuationJob job = new ValuationJob("job-1", "req1", "loan1");
+        job.setStatus(ValuationJob.Status.RUNNING);
+        when(valuationJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/valuation/jobs/job-1"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void returnsTheResultOfSucceededJobs() throws Exception {
+        ValuationResponse response = new ValuationResponse();
+        response.setFormCode("VR4B");
+        ValuationJob job = new ValuationJob("job-1", "req1", "loan1");
+        job.setStatus(ValuationJob.Status.SUCCEEDED);
+        job.setResult(response);
+        when(valuationJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/valuation/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.formCode").value("VR4B"));
+    }
+
+    @Test
+    void returnsTheErrorOfFailedJobsWithItsStatus() throws Exception {
+        ValuationJob job = new ValuationJob("job-1", "req1", "loan1");
+        job.setStatus(ValuationJob.Status.FAILED);
+        job.setError(new ErrorResponse(404, "PDF not found", "No report", "/valuation/jobs", "req1"));
+        when(valuationJobService.find("job-1")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/valuation/jobs/job-1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("PDF not found"));
+    }
+
+    @Test
+    void returns404ForUnknownJobs() throws Exception {
+        when(valuationJobService.find("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/valuation/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamsBatchItemsAsNdjson() throws Exception {
+        when(valuationBatchService.getMaxItems()).thenReturn(10);
+        doAnswer(invocation -> {
+            List<ValuationRequest> requests = invocation.getArgument(0);
+            ValuationBatchService.ItemWriter writer = invocation.getArgument(2);
+            writer.write(new ValuationBatchItem(1, requests.get(1),
+                    new ErrorResponse(404, "PDF not found", "No report", "/valuation/batch", "req2")));
+            writer.write(new ValuationBatchItem(0, requests.get(0), new ValuationResponse()));
+            return null;
+        }).when(valuationBatchService).process(anyList(), eq("/valuation/batch"), any());
+
+        MvcResult result = mockMvc.perform(post("/valuation/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + REQUEST + ",{\"requestId\":\"req2\",\"loanApplicationId\":\"loan1\"}]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = body.lines().map(this::readTree).toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).path("index").asInt()).isEqualTo(1);
+        assertThat(lines.get(0).path("status").asText()).isEqualTo("FAILED");
+        assertThat(lines.get(0).path("error").path("status").asInt()).isEqualTo(404);
+        assertThat(lines.get(1).path("requestId").asText()).isEqualTo("req1");
+        assertThat(lines.get(1).path("status").asText()).isEqualTo("SUCCEEDED");
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() throws Exception {
+        when(valuationBatchService.getMaxItems()).thenReturn(1);
+
+        for (String batch : List.of("[]", "[" + REQUEST + "," + REQUEST + "]")) {
+            MvcResult result = mockMvc.perform(post("/valuation/batch").contentType(MediaType.APPLICATION_JSON)
+                            .content(batch))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.error").value("Invalid batch"));
+        }
+
+        verify(valuationBatchService, never()).process(any(), any(), any());
+    }
+
+    @Test
+    void streamsProgressAsServerSentEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(valuationStreamService.stream("loan1", "req1", "/valuation/process/stream")).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/valuation/process/stream")
+                        .param("requestId", "req1").param("loanApplicationId", "loan1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("stage").data(ValuationProgress.downloaded(42), MediaType.APPLICATION_JSON));
+        emitter.send(SseEmitter.event().name("complete").data(new ValuationResponse(), MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("event:stage\ndata:{", "event:complete\ndata:{}");
+    }
+
+    @Test
+    void rejectsStreamsWith503WhenTooManyAreOpen() throws Exception {
+        when(valuationStreamService.stream(anyString(), anyString(), anyString()))
+                .thenThrow(new RejectedExecutionException("too many streams"));
+
+        MvcResult result = mockMvc.perform(get("/valuation/process/stream")
+                        .param("requestId", "req1").param("loanApplicationId", "loan1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.requestId").value("req1"));
+    }
+
+    @Test
+    void validatesStreamParameters() throws Exception {
+        MvcResult result = mockMvc.perform(get("/valuation/process/stream").param("requestId", "req1"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+        verify(valuationStreamService, never()).stream(any(), any(), any());
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
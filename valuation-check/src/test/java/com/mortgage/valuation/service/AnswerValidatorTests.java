@@ -0,0 +1,90 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.model.ValuationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerValidatorTests {
+
+    private final AnswerValidator validator = new AnswerValidator();
+
+    @Test
+    void rejectsAnswersOutsideTheMappingTable() {
+        assertThat(validator.validate(answer(null, "text", "x"))).isEqualTo("missing questionId");
+        assertThat(validator.validate(answer("VR4B_Unknown", "text", "x"))).isEqualTo("unknown questionId");
+    }
+
+    @Test
+    void correctsTheAnswerTypeFromTheTable() {
+        ValuationResponse.Answer answer = answer("VR4B_LenderReference", "number", "REF-1");
+
+        assertThat(validator.validate(answer)).isNull();
+        assertThat(answer.getAnswerType()).isEqualTo("text");
+    }
+
+    @Test
+    void acceptsNullForAnyQuestion() {
+        assertThat(validator.validate(answer("VR4B_InspectionDate", "date", null))).isNull();
+    }
+
+    @Test
+    void normalizesNumbers() {
+        ValuationResponse.Answer decimal = answer("VR4B_PurchasePriceEstimatedValuePpEv", "decimal", "£250,000");
+        ValuationResponse.Answer whole = answer("VR4B_IfLeaseholdWhatIsTheUnexpiredLeaseTerm", "number", 99.0);
+        ValuationResponse.Answer text = answer("VR4B_LenderReference", "text", 12345);
+
+        assertThat(validator.validate(decimal)).isNull();
+        assertThat(validator.validate(whole)).isNull();
+        assertThat(validator.validate(text)).isNull();
+
+        assertThat(decimal.getValue()).isEqualTo(250000.0);
+        assertThat(whole.getValue()).isEqualTo(99L);
+        assertThat(text.getValue()).isEqualTo("12345");
+        assertThat(validator.validate(answer("VR4B_PurchasePriceEstimatedValuePpEv", "decimal", "about 250k")))
+                .isEqualTo("expected a decimal number");
+    }
+
+    @Test
+    void requiresStrictDates() {
+        assertThat(validator.validate(answer("VR4B_InspectionDate", "date", "05/03/2024"))).isNull();
+        assertThat(validator.validate(answer("VR4B_InspectionDate", "date", "31/02/2024")))
+                .isEqualTo("expected a DD/MM/YYYY date");
+        assertThat(validator.validate(answer("VR4B_InspectionDate", "date", "2024-03-05")))
+                .isEqualTo("expected a DD/MM/YYYY date");
+    }
+
+    @Test
+    void normalizesOptions() {
+        ValuationResponse.Answer single = answer("VR4B_Transaction", "options", "Purchase");
+        ValuationResponse.Answer empty = answer("VR4B_Transaction", "options", List.of());
+
+        assertThat(validator.validate(single)).isNull();
+        assertThat(validator.validate(empty)).isNull();
+
+        assertThat(single.getValue()).isEqualTo(List.of("Purchase"));
+        assertThat(empty.getValue()).isNull();
+        assertThat(validator.validate(answer("VR4B_Transaction", "options", List.of(1, 2))))
+                .isEqualTo("expected an array of strings");
+    }
+
+    @Test
+    void validatingTwiceIsHarmless() {
+        ValuationResponse.Answer answer = answer("VR4B_PurchasePriceEstimatedValuePpEv", "decimal", "250,000");
+
+        validator.validate(answer);
+
+        assertThat(validator.validate(answer)).isNull();
+        assertThat(answer.getValue()).isEqualTo(250000.0);
+    }
+
+    private static ValuationResponse.Answer answer(String questionId, String answerType, Object value) {
+        ValuationResponse.Answer answer = new ValuationResponse.Answer();
+        answer.setQuestionId(questionId);
+        answer.setAnswerType(answerType);
+        answer.setValue(value);
+        return answer;
+    }
+}
@@ -0,0 +1,179 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.AzureOpenAIConfig;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AzureOpenAIServiceTests {
+
+    private final AzureOpenAIConfig config = new AzureOpenAIConfig();
+
+    private final OpenAIDeploymentPool deploymentPool = mock(OpenAIDeploymentPool.class);
+
+    private AzureOpenAIService service;
+
+    @TempDir
+    Path cacheDirectory;
+
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void cancelsTheOtherGroupsWhenOneFails() throws Exception {
+        config.getCache().setEnabled(false);
+        config.getFanOut().setEnabled(true);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        List<Boolean> siblingsCancelled = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            Deadline deadline = invocation.getArgument(2);
+            if (calls.incrementAndGet() == 1) {
+                siblingStarted.await(5, TimeUnit.SECONDS);
+                throw new AzureOpenAIService.AzureOpenAIServiceException("quota exhausted");
+            }
+            siblingStarted.countDown();
+            try {
+                deadline.onExpiry().get(5, TimeUnit.SECONDS);
+            } finally {
+                siblingsCancelled.add(deadline.isCancelled());
+            }
+            throw deadline.exceeded("LLM completion");
+        }).when(deploymentPool).execute(anyLong(), anyString(), any(Deadline.class), any());
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> service().processValuationText("report text", "req-1", answer -> { }, deadline))
+                .isInstanceOf(AzureOpenAIService.AzureOpenAIServiceException.class)
+                .hasMessageContaining("quota exhausted");
+
+        assertThat(siblingsCancelled).isNotEmpty().containsOnly(true);
+        assertThat(deadline.isExpired()).isFalse();
+    }
+
+    @Test
+    void replaysCachedAnswersToTheListener() throws Exception {
+        enableCache();
+        AzureOpenAIService service = service();
+        service.processValuationText("Lender reference LR-1", "req-1", answer -> { }, Deadline.none());
+
+        List<ValuationResponse.Answer> replayed = new ArrayList<>();
+        ValuationResponse response = service.processValuationText("Lender   reference\nLR-1", "req-2",
+                replayed::add, Deadline.none());
+
+        verifyCompletions(1);
+        assertThat(replayed).extracting(ValuationResponse.Answer::getQuestionId)
+                .containsExactly("VR4B_LenderReference", "VR4B_PurchasePriceEstimatedValuePpEv");
+        assertThat(response.getAnswers()).extracting(ValuationResponse.Answer::getValue)
+                .contains("LR-1", 250000.0);
+    }
+
+    @Test
+    void purgesOnlyTheEntriesOfOtherPromptVersions() throws Exception {
+        enableCache();
+        service().processValuationText("Lender reference LR-1", "req-1", answer -> { }, Deadline.none());
+        service.shutdown();
+        List<Path> current = versionDirectories();
+        Path stale = Files.createDirectories(cacheDirectory.resolve("0123456789abcdef"));
+        Files.writeString(stale.resolve("entry"), "{}");
+
+        AzureOpenAIService restarted = service();
+
+        assertThat(versionDirectories()).isEqualTo(current);
+        restarted.processValuationText("Lender reference LR-1", "req-2", answer -> { }, Deadline.none());
+        verifyCompletions(1);
+    }
+
+    @Test
+    void cacheKeyChangesWithTheDeploymentAndSamplingSettings() throws Exception {
+        enableCache();
+        AzureOpenAIService service = service();
+        service.processValuationText("Lender reference LR-1", "req-1", answer -> { }, Deadline.none());
+
+        when(deploymentPool.describe()).thenReturn("gpt-4o");
+        service.processValuationText("Lender reference LR-1", "req-2", answer -> { }, Deadline.none());
+        verifyCompletions(2);
+
+        config.setTemperature(0.7);
+        service.processValuationText("Lender reference LR-1", "req-3", answer -> { }, Deadline.none());
+        verifyCompletions(3);
+
+        config.setMaxTokens(2000);
+        service.processValuationText("Lender reference LR-1", "req-4", answer -> { }, Deadline.none());
+        verifyCompletions(4);
+
+        service.processValuationText("Lender reference LR-1", "req-5", answer -> { }, Deadline.none());
+        verifyCompletions(4);
+    }
+
+    private void enableCache() throws Exception {
+        config.getCache().setDirectory(cacheDirectory.toString());
+        config.getFanOut().setEnabled(false);
+        config.getRepair().setEnabled(false);
+        when(deploymentPool.execute(anyLong(), anyString(), any(Deadline.class), any())).thenAnswer(invocation -> {
+            ValuationResponse response = new ValuationResponse();
+            response.setAnswers(new ArrayList<>(List.of(
+                    answer("VR4B_LenderReference", "text", "LR-1"),
+                    answer("VR4B_PurchasePriceEstimatedValuePpEv", "decimal", 250000.0))));
+            return response;
+        });
+    }
+
+    private void verifyCompletions(int expected) throws Exception {
+        verify(deploymentPool, times(expected)).execute(anyLong(), anyString(), any(Deadline.class), any());
+    }
+
+    private List<Path> versionDirectories() throws Exception {
+        try (Stream<Path> directories = Files.list(cacheDirectory)) {
+            return directories.filter(Files::isDirectory).toList();
+        }
+    }
+
+    private static ValuationResponse.Answer answer(String questionId, String answerType, Object value) {
+        ValuationResponse.Answer answer = new ValuationResponse.Answer();
+        answer.setQuestionId(questionId);
+        answer.setAnswerType(answerType);
+        answer.setValue(value);
+        return answer;
+    }
+
+    private AzureOpenAIService service() {
+        when(deploymentPool.describe()).thenReturn("gpt-4.1");
+        ValuationConfig valuationConfig = new ValuationConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new AzureOpenAIService(deploymentPool, config,
+                new RuleBasedAnswerExtractor(valuationConfig, meterRegistry), new AnswerValidator(),
+                new MockEnvironment(), meterRegistry);
+        return service;
+    }
+}
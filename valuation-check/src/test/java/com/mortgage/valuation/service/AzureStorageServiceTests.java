@@ -0,0 +1,94 @@
+package com.mortgage.valuation.service;
+
+import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.SimpleResponse;
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.AzureStorageConfig;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class AzureStorageServiceTests {
+
+    private static final String BLOB_NAME = "valuation-reports/loan-1/request-1/report.pdf";
+    private static final long ONE_MB = 1024 * 1024;
+
+    private final AzureStorageConfig config = new AzureStorageConfig();
+    private final ValuationConfig valuationConfig = new ValuationConfig();
+    private final BlobContainerClient containerClient = mock(BlobContainerClient.class);
+    private final BlobClient blobClient = mock(BlobClient.class);
+
+    @BeforeEach
+    void configure() {
+        config.setValuationReportsPath("valuation-reports");
+        config.setDownloadMode(AzureStorageConfig.DownloadMode.HEAP);
+        config.getCache().setEnabled(false);
+        config.getIndex().setEnabled(false);
+        valuationConfig.setMaxFileSizeMb(1);
+
+        BlobItem item = new BlobItem().setName(BLOB_NAME);
+        @SuppressWarnings("unchecked")
+        PagedIterable<BlobItem> listing = mock(PagedIterable.class);
+        when(listing.iterator()).thenAnswer(invocation -> List.of(item).iterator());
+        when(containerClient.listBlobs(any(ListBlobsOptions.class), any())).thenReturn(listing);
+        when(containerClient.getBlobClient(BLOB_NAME)).thenReturn(blobClient);
+    }
+
+    @Test
+    void rejectsOversizedReportsBeforeDownloadingThem() {
+        blobSize(ONE_MB + 1);
+
+        assertThatThrownBy(() -> service().fetchValuationReport("loan-1", "request-1", Deadline.none()))
+                .isInstanceOf(AzureStorageService.ReportTooLargeException.class)
+                .hasMessageContaining(BLOB_NAME)
+                .hasMessageContaining("1 MB limit");
+        verify(blobClient).getPropertiesWithResponse(isNull(), any(), eq(Context.NONE));
+        verifyNoMoreInteractions(blobClient);
+    }
+
+    @Test
+    void downloadsReportsAtTheLimit() throws Exception {
+        blobSize(ONE_MB);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write(new byte[(int) ONE_MB]);
+            return null;
+        }).when(blobClient).downloadStreamWithResponse(any(), any(), any(), any(), eq(false), any(), any());
+
+        try (ValuationReport report = service().fetchValuationReport("loan-1", "request-1", Deadline.none())) {
+            assertThat(report.getSize()).isEqualTo(ONE_MB);
+        }
+    }
+
+    private void blobSize(long size) {
+        BlobProperties properties = mock(BlobProperties.class);
+        when(properties.getBlobSize()).thenReturn(size);
+        when(blobClient.getPropertiesWithResponse(isNull(), any(), eq(Context.NONE)))
+                .thenReturn(new SimpleResponse<>(null, 200, null, properties));
+    }
+
+    private AzureStorageService service() {
+        return new AzureStorageService(containerClient, config, valuationConfig, new SimpleMeterRegistry());
+    }
+}
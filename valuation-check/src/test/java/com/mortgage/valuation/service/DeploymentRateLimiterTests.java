@@ -0,0 +1,45 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.AzureOpenAIConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeploymentRateLimiterTests {
+
+    private final AzureOpenAIConfig.RateLimit config = new AzureOpenAIConfig.RateLimit();
+
+    @Test
+    void isDisabledByDefault() {
+        assertThat(new AzureOpenAIConfig.RateLimit().isEnabled()).isFalse();
+    }
+
+    @Test
+    void waitsNoLongerThanTheRequestDeadline() throws Exception {
+        config.setRequestsPerMinute(1);
+        config.setMaxWait(Duration.ofSeconds(60));
+        DeploymentRateLimiter limiter = new DeploymentRateLimiter("test", config, new SimpleMeterRegistry());
+        assertThat(limiter.execute(10, "req-1", Deadline.none(), () -> "first")).isEqualTo("first");
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> limiter.execute(10, "req-2", Deadline.after(Duration.ofMillis(100)), () -> "second"))
+                .isInstanceOf(Deadline.DeadlineExceededException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void failsWithAServiceErrorWhenMaxWaitIsShorterThanTheDeadline() throws Exception {
+        config.setRequestsPerMinute(1);
+        config.setMaxWait(Duration.ofMillis(50));
+        DeploymentRateLimiter limiter = new DeploymentRateLimiter("test", config, new SimpleMeterRegistry());
+        limiter.execute(10, "req-1", Deadline.none(), () -> "first");
+
+        assertThatThrownBy(() -> limiter.execute(10, "req-2", Deadline.after(Duration.ofSeconds(30)), () -> "second"))
+                .isInstanceOf(AzureOpenAIService.AzureOpenAIServiceException.class);
+    }
+}
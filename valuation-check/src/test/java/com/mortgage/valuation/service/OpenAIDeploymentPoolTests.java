@@ -0,0 +1,102 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.concurrent.Deadline;
+import com.mortgage.valuation.config.AzureOpenAIConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenAIDeploymentPoolTests {
+
+    private final AzureOpenAIConfig.Routing routing = new AzureOpenAIConfig.Routing();
+
+    private final OpenAIDeploymentPool.PooledDeployment first = deployment("first");
+
+    private final OpenAIDeploymentPool.PooledDeployment second = deployment("second");
+
+    private final OpenAIDeploymentPool pool = new OpenAIDeploymentPool(List.of(first, second), routing,
+            new AzureOpenAIConfig.Hedging(), false, new SimpleMeterRegistry());
+
+    private final List<String> called = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void failsOverTransportErrorsAndCountsThem() throws Exception {
+        String result = pool.execute(100, "req-1", Deadline.none(), deployment -> {
+            called.add(deployment.getName());
+            if (deployment == first) {
+                throw new UncheckedIOException(new IOException("connection reset"));
+            }
+            return "answer";
+        });
+
+        assertThat(result).isEqualTo("answer");
+        assertThat(called).containsExactly("first", "second");
+        assertThat(first.getErrorRate()).isPositive();
+    }
+
+    @Test
+    void doesNotFailOverOrCountCancelledCalls() {
+        assertThatThrownBy(() -> pool.execute(100, "req-1", Deadline.none(), deployment -> {
+            called.add(deployment.getName());
+            throw new CancellationException();
+        })).isInstanceOf(CancellationException.class);
+
+        assertThat(called).containsExactly("first");
+        assertThat(first.getErrorRate()).isZero();
+    }
+
+    @Test
+    void doesNotFailOverOrCountInterruptedCalls() {
+        assertThatThrownBy(() -> pool.execute(100, "req-1", Deadline.none(), deployment -> {
+            called.add(deployment.getName());
+            throw new IllegalStateException(new InterruptedException());
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(called).containsExactly("first");
+        assertThat(first.getErrorRate()).isZero();
+    }
+
+    @Test
+    void interruptsCallsPastTheDeadlineWithoutCountingThem() throws Exception {
+        assertThatThrownBy(() -> pool.execute(100, "req-1", Deadline.after(Duration.ofMillis(50)), deployment -> {
+            called.add(deployment.getName());
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "late";
+        })).isInstanceOf(Deadline.DeadlineExceededException.class);
+
+        Thread.sleep(200);
+        assertThat(called).containsExactly("first");
+        assertThat(first.getErrorRate()).isZero();
+        assertThat(second.getErrorRate()).isZero();
+    }
+
+    @Test
+    void treatsTransportErrorsAsRetryableAndCancellationsAsNot() {
+        assertThat(OpenAIDeploymentPool.isRetryable(new UncheckedIOException(new IOException("reset")))).isTrue();
+        assertThat(OpenAIDeploymentPool.isRetryable(new CancellationException())).isFalse();
+        assertThat(OpenAIDeploymentPool.isRetryable(new RuntimeException(new InterruptedException()))).isFalse();
+    }
+
+    private static OpenAIDeploymentPool.PooledDeployment deployment(String name) {
+        return new OpenAIDeploymentPool.PooledDeployment(name, null, "gpt-4.1", 1.0, null);
+    }
+}
@@ -0,0 +1,164 @@
+package com.mortgage.valuation.service;
+
+import com.azure.ai.documentintelligence.models.AnalyzeResult;
+import com.azure.ai.documentintelligence.models.DocumentLine;
+import com.azure.ai.documentintelligence.models.DocumentPage;
+import com.mortgage.valuation.config.AzureDocumentIntelligenceConfig;
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ExtractionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PdfTextExtractionServiceTests {
+
+    private final AzureDocumentIntelligenceConfig config = new AzureDocumentIntelligenceConfig();
+
+    @Test
+    void cancellingAnAnalysisDisposesItsPoller() {
+        AtomicBoolean disposed = new AtomicBoolean();
+
+        CompletableFuture<String> analysis = PdfTextExtractionService.subscribe(
+                Mono.<String>never().doOnCancel(() -> disposed.set(true)), (value, error) -> { });
+        analysis.cancel(true);
+
+        assertThat(disposed).isTrue();
+    }
+
+    @Test
+    void recordsTheAnalysisWhenItCompletes() {
+        AtomicReference<String> recorded = new AtomicReference<>();
+
+        CompletableFuture<String> analysis = PdfTextExtractionService.subscribe(
+                Mono.just("result"), (value, error) -> recorded.set(value));
+
+        assertThat(analysis).isCompletedWithValue("result");
+        assertThat(recorded).hasValue("result");
+    }
+
+    @Test
+    void formatsConsecutivePagesAsRanges() {
+        assertThat(PdfTextExtractionService.toPageRange(List.of(1, 2, 3, 5, 8, 9))).isEqualTo("1-3,5,8-9");
+        assertThat(PdfTextExtractionService.toPageRange(List.of(4))).isEqualTo("4");
+    }
+
+    @Test
+    void shardsDocumentsAboveThePageThreshold() {
+        config.getSharding().setPageThreshold(20);
+        config.getSharding().setPagesPerShard(10);
+        PdfTextExtractionService service = service();
+
+        assertThat(service.shardPageRanges(pages(1, 20))).isEmpty();
+        assertThat(service.shardPageRanges(pages(1, 25))).containsExactly("1-10", "11-20", "21-25");
+    }
+
+    @Test
+    void shardsOnlyThePagesThatNeedTheAnalyzer() {
+        config.getSharding().setPageThreshold(2);
+        config.getSharding().setPagesPerShard(2);
+
+        assertThat(service().shardPageRanges(List.of(1, 2, 4, 7, 8))).containsExactly("1-2", "4,7", "8");
+    }
+
+    @Test
+    void doesNotShardWhenShardingIsDisabled() {
+        config.getSharding().setEnabled(false);
+
+        assertThat(service().shardPageRanges(pages(1, 100))).isEmpty();
+    }
+
+    @Test
+    void mergesShardResultsInShardOrder() {
+        List<AnalyzeResult> shards = List.of(
+                analyzeResult(null, page(2, "second"), page(1, "first")),
+                analyzeResult("third\n", page(3, "third")));
+
+        ExtractionResult result = service().toExtractionResult("prebuilt-read", shards);
+
+        assertThat(result.getModelId()).isEqualTo("prebuilt-read");
+        assertThat(result.getPages()).containsExactly("first", "second", "third");
+        assertThat(result.getContent()).isEqualTo("first\nsecond\nthird");
+    }
+
+    @Test
+    void fillsPagesWithoutATextLayerFromTheAnalyzer() {
+        LocalTextLayerExtractor.TextLayer textLayer = new LocalTextLayerExtractor.TextLayer(List.of(
+                new LocalTextLayerExtractor.PageText(1, "local one", 1.0, true),
+                new LocalTextLayerExtractor.PageText(2, "", 0.0, false),
+                new LocalTextLayerExtractor.PageText(3, "local three", 1.0, true),
+                new LocalTextLayerExtractor.PageText(4, "garbled", 0.2, false)));
+        List<AnalyzeResult> shards = List.of(
+                analyzeResult(null, page(4, "remote four")),
+                analyzeResult(null, page(2, "remote two")));
+
+        ExtractionResult result = service().mergeWithTextLayer("prebuilt-read", textLayer, shards);
+
+        assertThat(result.getPages()).containsExactly("local one", "remote two", "local three", "remote four");
+        assertThat(result.getContent()).isEqualTo("local one\nremote two\nlocal three\nremote four");
+    }
+
+    @Test
+    void configurationKeyChangesWithTheSettingsThatDecideTheResult() {
+        AnalyzerModelStrategy strategy = new SignalBasedAnalyzerModelStrategy(config);
+        String key = PdfTextExtractionService.configurationKey(config, strategy);
+        assertThat(PdfTextExtractionService.configurationKey(config, strategy)).isEqualTo(key);
+
+        config.getModelSelection().setReadMinTextLayerFraction(0.9);
+        String fractionKey = PdfTextExtractionService.configurationKey(config, strategy);
+        assertThat(fractionKey).isNotEqualTo(key);
+
+        config.getLocalTextLayer().setMinCharsPerPage(50);
+        String textLayerKey = PdfTextExtractionService.configurationKey(config, strategy);
+        assertThat(textLayerKey).isNotEqualTo(fractionKey);
+
+        assertThat(PdfTextExtractionService.configurationKey(config, signals -> "prebuilt-layout"))
+                .isNotEqualTo(textLayerKey);
+    }
+
+    @Test
+    void configurationKeyIgnoresSettingsThatDoNotDecideTheResult() {
+        AnalyzerModelStrategy strategy = new SignalBasedAnalyzerModelStrategy(config);
+        String key = PdfTextExtractionService.configurationKey(config, strategy);
+
+        config.getSharding().setPagesPerShard(5);
+        config.getCache().setMaxSizeMb(1);
+
+        assertThat(PdfTextExtractionService.configurationKey(config, strategy)).isEqualTo(key);
+    }
+
+    private PdfTextExtractionService service() {
+        config.getCache().setEnabled(false);
+        return new PdfTextExtractionService(null, config, new LocalTextLayerExtractor(config),
+                new SignalBasedAnalyzerModelStrategy(config), new ValuationConfig(), new SimpleMeterRegistry());
+    }
+
+    private static List<Integer> pages(int first, int last) {
+        return IntStream.rangeClosed(first, last).boxed().toList();
+    }
+
+    private static AnalyzeResult analyzeResult(String content, DocumentPage... pages) {
+        AnalyzeResult result = mock(AnalyzeResult.class);
+        when(result.getContent()).thenReturn(content);
+        when(result.getPages()).thenReturn(List.of(pages));
+        return result;
+    }
+
+    private static DocumentPage page(int pageNumber, String text) {
+        DocumentLine line = mock(DocumentLine.class);
+        when(line.getContent()).thenReturn(text);
+        DocumentPage page = mock(DocumentPage.class);
+        when(page.getPageNumber()).thenReturn(pageNumber);
+        when(page.getLines()).thenReturn(List.of(line));
+        return page;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ExtractionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportTextReducerTests {
+
+    private final ValuationConfig config = new ValuationConfig();
+
+    private final ReportTextReducer reducer = new ReportTextReducer(config, new SimpleMeterRegistry());
+
+    @Test
+    void keepsTheFirstOccurrenceOfARepeatedHeader() {
+        ReportTextReducer.ReducedText reduced = reducer.reduce(extraction(
+                "12 High Street, Leeds LS1 4AB\nProperty type: detached house\nPage 1 of 3",
+                "12 High Street, Leeds LS1 4AB\nTenure: freehold\nPage 2 of 3",
+                "12 High Street, Leeds LS1 4AB\nMarket value: 250000\nPage 3 of 3"), "req-1");
+
+        assertThat(reduced.text()).isEqualTo(String.join("\n",
+                "12 High Street, Leeds LS1 4AB",
+                "Property type: detached house",
+                "Page 1 of 3",
+                "Tenure: freehold",
+                "Market value: 250000"));
+    }
+
+    @Test
+    void leavesLinesRepeatedOnTooFewPages() {
+        ReportTextReducer.ReducedText reduced = reducer.reduce(extraction(
+                "Ref: A-1\nProperty type: flat",
+                "Ref: A-1\nTenure: leasehold",
+                "Garden: yes\nParking: none",
+                "Council tax band: C\nWindows: double glazed",
+                "Heating: gas\nRoof: tiled"), "req-1");
+
+        assertThat(reduced.text()).contains("Ref: A-1\nProperty type: flat\nRef: A-1\nTenure: leasehold");
+    }
+
+    @Test
+    void dropsBoilerplateSectionsAndKeepsRelevantOnes() {
+        ReportTextReducer.ReducedText reduced = reducer.reduce(extraction(
+                "Property: detached house\n"
+                        + "TERMS AND CONDITIONS\nThe valuer accepts no liability to third parties.\n"
+                        + "VALUATION SUMMARY\nMarket value: 250000"), "req-1");
+
+        assertThat(reduced.text()).isEqualTo(
+                "Property: detached house\nVALUATION SUMMARY\nMarket value: 250000");
+        assertThat(reduced.droppedSections()).containsExactly("TERMS AND CONDITIONS");
+        assertThat(reduced.originalCharacters()).isGreaterThan(reduced.text().length());
+    }
+
+    @Test
+    void returnsTheOriginalTextWhenDisabled() {
+        config.getTextReduction().setEnabled(false);
+        ExtractionResult extraction = extraction(
+                "Header\nTERMS AND CONDITIONS\nNo liability.",
+                "Header\nMore terms.");
+
+        ReportTextReducer.ReducedText reduced = reducer.reduce(extraction, "req-1");
+
+        assertThat(reduced.text()).isEqualTo(extraction.getContent());
+        assertThat(reduced.droppedSections()).isEmpty();
+    }
+
+    private static ExtractionResult extraction(String... pages) {
+        return new ExtractionResult("prebuilt-read", String.join("\n", pages), List.of(pages));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.ValuationConfig;
+import com.mortgage.valuation.model.ValuationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleBasedAnswerExtractorTests {
+
+    private final ValuationConfig config = new ValuationConfig();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RuleBasedAnswerExtractor extractor = new RuleBasedAnswerExtractor(config, meterRegistry);
+
+    @Test
+    void extractsValuesNextToTheirLabels() {
+        Map<String, ValuationResponse.Answer> answers = extractor.extract(String.join("\n",
+                "Postcode: ls1 4ab",
+                "Date of inspection: 3rd March 2024",
+                "Report date: 05/03/2024",
+                "Market value: £250,000",
+                "Reinstatement cost: £180,000.50",
+                "RICS number: 1234567"), "req-1");
+
+        assertThat(answers).containsOnlyKeys("VR4B_PostCode", "VR4B_InspectionDate", "VR4B_ReportDate",
+                "VR4B_MarketValue", "VR4B_ReinstatementCost", "VR4B_RicsNumber");
+        assertThat(answers.get("VR4B_PostCode").getValue()).isEqualTo("LS1 4AB");
+        assertThat(answers.get("VR4B_PostCode").getAnswerType()).isEqualTo("text");
+        assertThat(answers.get("VR4B_InspectionDate").getValue()).isEqualTo("03/03/2024");
+        assertThat(answers.get("VR4B_ReportDate").getValue()).isEqualTo("05/03/2024");
+        assertThat(answers.get("VR4B_MarketValue").getValue()).isEqualTo(250000.0);
+        assertThat(answers.get("VR4B_ReinstatementCost").getValue()).isEqualTo(180000.5);
+        assertThat(answers.get("VR4B_RicsNumber").getValue()).isEqualTo("1234567");
+        assertThat(meterRegistry.get("valuation.rules.resolved").tag("questionId", "VR4B_PostCode")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresMarketValuesWithSpecialAssumptions() {
+        Map<String, ValuationResponse.Answer> answers = extractor.extract(
+                "Market value after completion of works: £300,000", "req-1");
+
+        assertThat(answers).doesNotContainKey("VR4B_MarketValue");
+    }
+
+    @Test
+    void leavesConflictingValuesToTheLlm() {
+        Map<String, ValuationResponse.Answer> answers = extractor.extract(
+                "Market value: £250,000\nSummary\nMarket value: £275,000", "req-1");
+
+        assertThat(answers).doesNotContainKey("VR4B_MarketValue");
+    }
+
+    @Test
+    void leavesValuesFarFromTheirLabelBelowTheThreshold() {
+        Map<String, ValuationResponse.Answer> answers = extractor.extract(
+                "Postcode:" + " ".repeat(100) + "LS1 4AB", "req-1");
+
+        assertThat(answers).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidDates() {
+        Map<String, ValuationResponse.Answer> answers = extractor.extract("Report date: 31/02/2024", "req-1");
+
+        assertThat(answers).isEmpty();
+    }
+
+    @Test
+    void extractsNothingWhenDisabled() {
+        config.getRuleExtraction().setEnabled(false);
+
+        assertThat(extractor.extract("Postcode: LS1 4AB", "req-1")).isEmpty();
+    }
+}
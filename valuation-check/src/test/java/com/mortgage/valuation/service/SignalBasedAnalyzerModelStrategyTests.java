@@ -0,0 +1,71 @@
+package com.mortgage.valuation.service;
+
+import com.mortgage.valuation.config.AzureDocumentIntelligenceConfig;
+import com.mortgage.valuation.service.AnalyzerModelStrategy.DocumentSignals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignalBasedAnalyzerModelStrategyTests {
+
+    private static final long ONE_MB = 1024 * 1024;
+
+    private final AzureDocumentIntelligenceConfig config = new AzureDocumentIntelligenceConfig();
+    private final SignalBasedAnalyzerModelStrategy strategy = new SignalBasedAnalyzerModelStrategy(config);
+
+    @BeforeEach
+    void configure() {
+        AzureDocumentIntelligenceConfig.ModelSelection selection = config.getModelSelection();
+        selection.setReadModelId("read");
+        selection.setLayoutModelId("layout");
+        selection.setLayoutMaxPages(10);
+        selection.setLayoutMaxFileSizeMb(10);
+        selection.setReadMinTextLayerFraction(0.5);
+    }
+
+    @Test
+    void sendsShortScannedReportsToTheLayoutModel() {
+        assertThat(strategy.selectModel(new DocumentSignals(8, 8, 0, ONE_MB))).isEqualTo("layout");
+    }
+
+    @Test
+    void sendsLongReportsToTheReadModel() {
+        assertThat(strategy.selectModel(new DocumentSignals(11, 11, 0, ONE_MB))).isEqualTo("read");
+    }
+
+    @Test
+    void countsOnlyThePagesLeftForTheAnalyzer() {
+        assertThat(strategy.selectModel(new DocumentSignals(40, 6, 0, ONE_MB))).isEqualTo("layout");
+    }
+
+    @Test
+    void sendsLargeReportsToTheReadModel() {
+        assertThat(strategy.selectModel(new DocumentSignals(5, 5, 0, 11 * ONE_MB))).isEqualTo("read");
+    }
+
+    @Test
+    void sendsReportsWhoseCountCannotBeReadToTheReadModel() {
+        assertThat(strategy.selectModel(new DocumentSignals(-1, -1, 0, ONE_MB))).isEqualTo("read");
+    }
+
+    @Test
+    void sendsMostlyDigitalReportsToTheReadModelFromTheTextLayerThreshold() {
+        assertThat(strategy.selectModel(new DocumentSignals(10, 6, 4, ONE_MB))).isEqualTo("layout");
+        assertThat(strategy.selectModel(new DocumentSignals(10, 5, 5, ONE_MB))).isEqualTo("read");
+    }
+
+    @Test
+    void usesTheConfiguredModelWhenSelectionIsDisabled() {
+        config.setModelId("prebuilt-document");
+        config.getModelSelection().setEnabled(false);
+
+        assertThat(strategy.selectModel(new DocumentSignals(100, 100, 0, 50 * ONE_MB))).isEqualTo("prebuilt-document");
+    }
+
+    @Test
+    void textLayerFractionIsZeroWhenThePageCountIsUnknown() {
+        assertThat(new DocumentSignals(-1, -1, 3, ONE_MB).textLayerFraction()).isZero();
+        assertThat(new DocumentSignals(4, 1, 3, ONE_MB).textLayerFraction()).isEqualTo(0.75);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mortgage.valuation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mortgage.valuation.model.ValuationResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingValuationParserTests {
+
+    private final List<ValuationResponse.Answer> answers = new ArrayList<>();
+
+    @Test
+    void emitsEachAnswerAsSoonAsItIsComplete() throws Exception {
+        StreamingValuationParser parser = new StreamingValuationParser(new ObjectMapper(), answers::add);
+
+        parser.feed("{\"formCode\":\"VR4B\",\"answers\":[{\"questionId\":\"VR4B_Post");
+        assertThat(answers).isEmpty();
+
+        parser.feed("Code\",\"answerType\":\"string\",\"value\":\"LS1 4AB\"},{\"questionId\":");
+        assertThat(answers).extracting(ValuationResponse.Answer::getQuestionId).containsExactly("VR4B_PostCode");
+
+        parser.feed("\"VR4B_Tenure\",\"answerType\":\"options\",\"value\":[\"Freehold\"]}]}");
+        assertThat(answers).extracting(ValuationResponse.Answer::getQuestionId)
+                .containsExactly("VR4B_PostCode", "VR4B_Tenure");
+        assertThat(parser.getAnswerCount()).isEqualTo(2);
+
+        ValuationResponse response = parser.finish();
+        assertThat(response.getFormCode()).isEqualTo("VR4B");
+        assertThat(response.getAnswers()).hasSize(2);
+        assertThat(response.getAnswers().get(1).getValue()).isEqualTo(List.of("Freehold"));
+    }
+
+    @Test
+    void ignoresTextAroundTheRootObject() throws Exception {
+        StreamingValuationParser parser = new StreamingValuationParser(new ObjectMapper(), answers::add);
+
+        parser.feed("```json\n");
+        parser.feed("{\"answers\":[{\"questionId\":\"VR4B_PostCode\",\"value\":\"LS1 4AB\"}]}");
+        parser.feed("\n```");
+
+        assertThat(parser.finish().getAnswers()).hasSize(1);
+        assertThat(answers).hasSize(1);
+    }
+
+    @Test
+    void doesNotEmitObjectsNestedInsideAnAnswerOrOutsideTheAnswers() throws Exception {
+        StreamingValuationParser parser = new StreamingValuationParser(new ObjectMapper(), answers::add);
+
+        parser.feed("{\"status\":\"done\",\"answers\":[{\"questionId\":\"VR4B_Rooms\",\"value\":"
+                + "[{\"name\":\"kitchen\"},{\"name\":\"bedroom\"}]}],\"answersFormVersions\":[\"1\"]}");
+
+        assertThat(answers).extracting(ValuationResponse.Answer::getQuestionId).containsExactly("VR4B_Rooms");
+        assertThat(parser.finish().getAnswersFormVersions()).containsExactly("1");
+    }
+
+    @Test
+    void failsWhenTheStreamEndsBeforeTheObjectIsComplete() throws Exception {
+        StreamingValuationParser parser = new StreamingValuationParser(new ObjectMapper(), answers::add);
+
+        parser.feed("{\"answers\":[{\"questionId\":\"VR4B_PostCode\",\"value\":\"LS1 4AB\"},");
+
+        assertThat(answers).hasSize(1);
+        assertThatThrownBy(parser::finish).isInstanceOf(IOException.class);
+    }
+}
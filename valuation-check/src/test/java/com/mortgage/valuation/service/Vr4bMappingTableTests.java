@@ -0,0 +1,53 @@
+package com.mortgage.valuation.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Vr4bMappingTableTests {
+
+    @Test
+    void defaultGroupsCoverEveryQuestionOnceInFormOrder() {
+        Map<String, List<Vr4bMappingTable.Question>> groups = Vr4bMappingTable.groups(Map.of());
+
+        assertThat(groups).containsKeys(Vr4bMappingTable.GROUP_ADDRESS, Vr4bMappingTable.GROUP_VALUATION,
+                Vr4bMappingTable.GROUP_TENURE, Vr4bMappingTable.GROUP_CONSTRUCTION, Vr4bMappingTable.GROUP_VALUER);
+        assertThat(groups.values().stream().flatMap(List::stream))
+                .containsExactlyInAnyOrderElementsOf(Vr4bMappingTable.questions());
+        groups.forEach((group, questions) -> {
+            assertThat(questions).allMatch(question -> question.group().equals(group));
+            assertThat(questions).isSortedAccordingTo((a, b) -> Integer.compare(
+                    Vr4bMappingTable.indexOf(a.questionId()), Vr4bMappingTable.indexOf(b.questionId())));
+        });
+    }
+
+    @Test
+    void configuredGroupsAssignEachQuestionOnceAndCollectTheRestAsOther() {
+        Map<String, List<String>> configured = new LinkedHashMap<>();
+        configured.put("first", List.of("VR4B_LenderReference", "VR4B_Unknown"));
+        configured.put("second", List.of("VR4B_LenderReference", "VR4B_Transaction"));
+        configured.put("empty", List.of("VR4B_Unknown"));
+
+        Map<String, List<Vr4bMappingTable.Question>> groups = Vr4bMappingTable.groups(configured);
+
+        assertThat(groups).containsOnlyKeys("first", "second", "other");
+        assertThat(groups.get("first")).extracting(Vr4bMappingTable.Question::questionId)
+                .containsExactly("VR4B_LenderReference");
+        assertThat(groups.get("second")).extracting(Vr4bMappingTable.Question::questionId)
+                .containsExactly("VR4B_Transaction");
+        assertThat(groups.values().stream().flatMap(List::stream))
+                .containsExactlyInAnyOrderElementsOf(Vr4bMappingTable.questions());
+    }
+
+    @Test
+    void looksUpQuestionsById() {
+        assertThat(Vr4bMappingTable.find("VR4B_LenderReference")).isPresent();
+        assertThat(Vr4bMappingTable.find("VR4B_Unknown")).isEmpty();
+        assertThat(Vr4bMappingTable.indexOf("VR4B_LenderReference")).isZero();
+        assertThat(Vr4bMappingTable.indexOf("VR4B_Unknown")).isEqualTo(-1);
+    }
+}